@@ -0,0 +1,68 @@
+package osp.Bench;
+
+import java.util.Arrays;
+
+/**
+    One micro-benchmark of MemoryBench or TasksBench, and the loop
+    that times it. Both are run outside the simulator with `make
+    bench', against the stand-ins for OSP in their test/stub trees.
+
+    run() does the work once and returns something derived from it;
+    the result goes into a volatile field so that the JIT cannot drop
+    the work. measure() runs it for a few warm-up rounds, more for a
+    short run so that the JIT has compiled it, then times the measured
+    rounds and reports the median in ns per operation, so that runs
+    before and after a change can be compared line by line.
+*/
+public abstract class Bench
+{
+    public static final int WarmupRounds = 5;
+    public static final int Rounds = 11;
+    private static final int WarmupOps = 1 << 16;
+
+    private static volatile long sink;
+
+    public final String name;
+
+    protected Bench(String name)
+    {
+        this.name = name;
+    }
+
+    /** Does the work once. @return something derived from the work */
+    protected abstract long run();
+
+    /** @return the median ns per operation, for a run() of ops operations */
+    public double measure(int ops)
+    {
+        return measure(ops, WarmupRounds, Rounds);
+    }
+
+    /** @return the median ns per operation over the measured rounds */
+    public double measure(int ops, int warmupRounds, int rounds)
+    {
+        warmupRounds = Math.max(warmupRounds, WarmupOps / ops);
+        for (int i = 0; i < warmupRounds; i++)
+            sink += run();
+        double[] times = new double[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            sink += run();
+            times[i] = (double)(System.nanoTime() - start) / ops;
+        }
+        Arrays.sort(times);
+        return Math.round(times[rounds / 2] * 100) / 100.0;
+    }
+
+    /** Prints the header of the result table. */
+    public static void printHeader(String size, String unit)
+    {
+        System.out.println("benchmark\t" + size + "\tns/" + unit);
+    }
+
+    /** Prints a line of the result table. */
+    public void print(int size, double nsPerOp)
+    {
+        System.out.println(name + "\t" + size + "\t" + nsPerOp);
+    }
+}
@@ -0,0 +1,58 @@
+package osp.Memory;
+
+/**
+    Aging (NFU with decay) replacement. Every frame has an 8-bit age
+    counter. Whenever a victim is needed, each counter is shifted right
+    and the frame's reference bit is shifted in at the top, then the
+    bit is cleared. The evictable frame with the smallest counter, i.e.
+    the one used least over the recent faults, is the victim.
+
+    @OSPProject Memory
+*/
+class AgingPolicy implements ReplacementPolicy
+{
+    private final int[] age;
+
+    AgingPolicy()
+    {
+        age = new int[MMU.getFrameTableSize()];
+    }
+
+    public void frameLoaded(FrameTableEntry frame)
+    {
+        // a freshly loaded page counts as just used
+        age[frame.getID()] = 0x80;
+    }
+
+    public void frameFreed(FrameTableEntry frame)
+    {
+        age[frame.getID()] = 0;
+    }
+
+    public FrameTableEntry selectVictim()
+    {
+        FrameTableEntry victim = null;
+        int victimAge = Integer.MAX_VALUE;
+
+        for (int i = 0; i < age.length; i++) {
+            FrameTableEntry frame = MMU.getFrame(i);
+            if (frame.getPage() == null)
+                continue;
+            age[i] >>>= 1;
+            if (frame.isReferenced()) {
+                age[i] |= 0x80;
+                frame.setReferenced(false);
+            }
+            if (PageFaultHandler.canEvict(frame) && age[i] < victimAge) {
+                victim = frame;
+                victimAge = age[i];
+            }
+        }
+        return victim;
+    }
+
+    public String toString()
+    {
+        return "Aging";
+    }
+}
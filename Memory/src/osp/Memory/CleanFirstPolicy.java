@@ -0,0 +1,34 @@
+package osp.Memory;
+
+/**
+    Evicts any clean frame if there is one and a dirty frame otherwise,
+    which saves the swap-out whenever it can. This is what GetNewFrame()
+    did before replacement policies became pluggable, but it now takes
+    its candidates from the clean and dirty sets of MMU.pool instead of
+    scanning the frame table twice.
+
+    @OSPProject Memory
+*/
+class CleanFirstPolicy implements ReplacementPolicy
+{
+    public void frameLoaded(FrameTableEntry frame)
+    {
+    }
+
+    public void frameFreed(FrameTableEntry frame)
+    {
+    }
+
+    public FrameTableEntry selectVictim()
+    {
+        FrameTableEntry frame = MMU.pool.pickClean();
+        if (frame != null)
+            return frame;
+        return MMU.pool.pickDirty();
+    }
+
+    public String toString()
+    {
+        return "CleanFirst";
+    }
+}
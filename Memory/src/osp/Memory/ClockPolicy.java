@@ -0,0 +1,44 @@
+package osp.Memory;
+
+/**
+    Clock (second chance) replacement. The hand sweeps the frame table;
+    a referenced frame has its reference bit cleared and is skipped,
+    the first unreferenced one is the victim.
+
+    @OSPProject Memory
+*/
+class ClockPolicy implements ReplacementPolicy
+{
+    private int hand = 0;
+
+    public void frameLoaded(FrameTableEntry frame)
+    {
+    }
+
+    public void frameFreed(FrameTableEntry frame)
+    {
+    }
+
+    public FrameTableEntry selectVictim()
+    {
+        int frameTableSize = MMU.getFrameTableSize();
+
+        // two sweeps: the first may only clear reference bits
+        for (int i = 0; i < 2 * frameTableSize; i++) {
+            FrameTableEntry frame = MMU.getFrame(hand);
+            hand = (hand + 1) % frameTableSize;
+            if (!PageFaultHandler.canEvict(frame))
+                continue;
+            if (frame.isReferenced())
+                frame.setReferenced(false);
+            else
+                return frame;
+        }
+        return null;
+    }
+
+    public String toString()
+    {
+        return "Clock";
+    }
+}
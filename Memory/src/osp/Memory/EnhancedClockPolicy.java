@@ -0,0 +1,57 @@
+package osp.Memory;
+
+/**
+    Enhanced clock replacement, which looks at the (referenced, dirty)
+    pair of every frame and prefers, in this order:
+    (0,0) not used and clean, (0,1) not used but dirty,
+    (1,0) used but clean, (1,1) used and dirty.
+
+    Each round does one sweep looking for (0,0) without touching
+    anything, then one sweep looking for (0,1) that clears the
+    reference bits it passes. Two rounds always find a victim if
+    there is an evictable frame at all.
+
+    @OSPProject Memory
+*/
+class EnhancedClockPolicy implements ReplacementPolicy
+{
+    private int hand = 0;
+
+    public void frameLoaded(FrameTableEntry frame)
+    {
+    }
+
+    public void frameFreed(FrameTableEntry frame)
+    {
+    }
+
+    public FrameTableEntry selectVictim()
+    {
+        int frameTableSize = MMU.getFrameTableSize();
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < frameTableSize; i++) {
+                FrameTableEntry frame = MMU.getFrame(hand);
+                hand = (hand + 1) % frameTableSize;
+                if (PageFaultHandler.canEvict(frame)
+                    && !frame.isReferenced() && !frame.isDirty())
+                    return frame;
+            }
+            for (int i = 0; i < frameTableSize; i++) {
+                FrameTableEntry frame = MMU.getFrame(hand);
+                hand = (hand + 1) % frameTableSize;
+                if (!PageFaultHandler.canEvict(frame))
+                    continue;
+                if (!frame.isReferenced())
+                    return frame;
+                frame.setReferenced(false);
+            }
+        }
+        return null;
+    }
+
+    public String toString()
+    {
+        return "EnhancedClock";
+    }
+}
@@ -0,0 +1,43 @@
+package osp.Memory;
+
+/**
+    First-in first-out replacement: evicts the frame whose page has
+    been resident the longest, regardless of how it is being used.
+
+    @OSPProject Memory
+*/
+class FIFOPolicy implements ReplacementPolicy
+{
+    // LRUFrameList touched only on load is exactly a load-order queue
+    private final LRUFrameList loadOrder;
+
+    FIFOPolicy()
+    {
+        loadOrder = new LRUFrameList(MMU.getFrameTableSize());
+    }
+
+    public void frameLoaded(FrameTableEntry frame)
+    {
+        loadOrder.touch(frame);
+    }
+
+    public void frameFreed(FrameTableEntry frame)
+    {
+        loadOrder.remove(frame);
+    }
+
+    public FrameTableEntry selectVictim()
+    {
+        for (FrameTableEntry frame = loadOrder.oldest(); frame != null;
+             frame = loadOrder.newer(frame)) {
+            if (PageFaultHandler.canEvict(frame))
+                return frame;
+        }
+        return null;
+    }
+
+    public String toString()
+    {
+        return "FIFO";
+    }
+}
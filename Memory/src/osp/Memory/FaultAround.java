@@ -0,0 +1,195 @@
+package osp.Memory;
+
+import osp.Threads.*;
+import osp.Tasks.*;
+import osp.Utilities.*;
+
+/**
+    Fault-around: after a page fault has brought in page N, the
+    faulting thread also brings in the invalid pages N+1 .. N+window of
+    the same task, as long as there are free or clean frames for them.
+    Prefetching never causes a swap-out, and only takes clean frames
+    that have not been referenced lately (see FramePool.pickColdClean()).
+    Prefetching is done after page N has been made valid; see PageFault
+    for what other threads may do with page N meanwhile.
+
+    Faults taken by do_lock() on behalf of an I/O request are not
+    followed by fault-around: they say nothing about the access pattern
+    of the task, and the IORB is waiting for the page.
+
+    The whole window is claimed before the first read: each page gets
+    a frame, reserved, and the thread as its validating thread, so
+    threads referencing any of them meanwhile wait on the page instead
+    of faulting it in again, and no page is claimed that has no frame
+    to go to. The pages are then swapped in one after the other.
+
+    FaultAroundPages (K) in [Memory] is the largest window, 0 turns
+    fault-around off. With FaultAroundMode Fixed the window is always
+    K; with Adaptive it starts at 1, grows while most prefetched pages
+    get referenced before they are evicted and shrinks (down to 0,
+    then probes with 1 again) while most are wasted.
+
+    @OSPProject Memory
+*/
+class FaultAround
+{
+    private static int maxWindow = 0;
+    private static boolean adaptive = false;
+    private static int window = 0;
+
+    // outcome of prefetches since the window was last adjusted
+    private static int recentHits = 0;
+    private static int recentWasted = 0;
+    private static final int AdjustEvery = 8;
+    private static int faultsSkipped = 0;
+
+    private static long prefetched = 0;
+    private static long hits = 0;
+    private static long wasted = 0;
+
+    /** Reads FaultAroundPages and FaultAroundMode. Called from MMU.init(). */
+    static void init()
+    {
+        maxWindow = Math.max(0, MemoryParams.getInt("FaultAroundPages", 0));
+        adaptive = MemoryParams.getString("FaultAroundMode", "Fixed")
+                   .equalsIgnoreCase("Adaptive");
+        window = adaptive ? Math.min(1, maxWindow) : maxWindow;
+        recentHits = recentWasted = faultsSkipped = 0;
+        prefetched = hits = wasted = 0;
+    }
+
+    /**
+       Prefetches the neighbours of the page that has just been faulted
+       in by the thread. Stops as soon as the thread is killed or no
+       free or clean frame is left.
+    */
+    static void prefetch(ThreadCB thread, PageTableEntry page)
+    {
+        if (maxWindow == 0)
+            return;
+        if (adaptive && window == 0) {
+            // probe now and then, the access pattern may have changed
+            if (++faultsSkipped < AdjustEvery)
+                return;
+            faultsSkipped = 0;
+            window = 1;
+        }
+
+        TaskCB task = page.getTask();
+        PageTableEntry[] pages = task.getPageTable().pages;
+        int last = Math.min(pages.length - 1, page.getID() + window);
+
+        // claim the window: a frame and the validating thread for each page
+        PageTableEntry[] claimed = new PageTableEntry[last - page.getID()];
+        int count = 0;
+        for (int i = page.getID() + 1; i <= last; i++) {
+            PageTableEntry next = pages[i];
+            if (next.isValid() || next.getValidatingThread() != null)
+                continue;
+
+            FrameTableEntry frame = MMU.pool.takeFree();
+            if (frame == null)
+                frame = MMU.pool.pickColdClean();
+            if (frame == null)
+                break;
+
+            MMU.pool.frameTaken(frame);
+            frame.setReserved(task);
+            next.setValidatingThread(thread);
+            if (frame.getPage() != null) {
+                SwapSpace.pageDiscarded(frame.getPage());
+                PageFaultHandler.releaseVictim(frame);
+            }
+            next.setFrame(frame);
+            next.pageTable.frameFilled(frame);
+            claimed[count++] = next;
+        }
+
+        for (int i = 0; i < count; i++) {
+            PageTableEntry next = claimed[i];
+            FrameTableEntry frame = next.getFrame();
+            SwapSpace.pageIn(next);
+            task.getSwapFile().read(next.getID(), next, thread);
+            if (thread.getStatus() == GlobalVariables.ThreadKill) {
+                // OSP may have taken the frame back from the page being read
+                abandon(frame, next, task);
+                for (int j = i + 1; j < count; j++)
+                    abandon(claimed[j].getFrame(), claimed[j], task);
+                return;
+            }
+
+            frame.setPage(next);
+            next.swapCopyCurrent = true;
+            next.setValid(true);
+            Superpages.pageValidated(next);
+            // not referenced yet, so an unused prefetch is the first to go
+            frame.setReferenced(false);
+            frame.setDirty(false);
+            if (frame.getReserved() == task)
+                frame.setUnreserved(task);
+            MMU.LRU.touch(frame);
+            PageFaultHandler.policy.frameLoaded(frame);
+            MMU.pool.frameFilled(frame);
+            next.setValidatingThread(null);
+            next.prefetched = true;
+            prefetched++;
+            next.notifyThreads();
+        }
+    }
+
+    /** Gives back the frame of a claimed page that was not swapped in. */
+    private static void abandon(FrameTableEntry frame, PageTableEntry page, TaskCB task)
+    {
+        if (frame != null) {
+            PageFaultHandler.abandonFrame(frame, page);
+            if (frame.getReserved() == task)
+                frame.setUnreserved(task);
+            MMU.pool.frameFreed(frame);
+        }
+        page.setValidatingThread(null);
+        page.notifyThreads();
+    }
+
+    /** Called by MMU.do_refer() when a page that was prefetched is used. */
+    static void pageReferenced(PageTableEntry page)
+    {
+        page.prefetched = false;
+        hits++;
+        recentHits++;
+        adjustWindow();
+    }
+
+    /** Called whenever a page is evicted. */
+    static void pageEvicted(PageTableEntry page)
+    {
+        if (!page.prefetched)
+            return;
+        page.prefetched = false;
+        wasted++;
+        recentWasted++;
+        adjustWindow();
+    }
+
+    static String report()
+    {
+        return "Fault-around (" + (adaptive ? "adaptive" : "fixed") + ", window "
+               + window + " of " + maxWindow + "): " + prefetched + " pages prefetched, "
+               + hits + " used, " + wasted + " evicted unused";
+    }
+
+    static boolean isEnabled()
+    {
+        return maxWindow > 0;
+    }
+
+    private static void adjustWindow()
+    {
+        if (!adaptive || recentHits + recentWasted < AdjustEvery)
+            return;
+        if (recentHits >= 3 * recentWasted)
+            window = Math.min(maxWindow, window + 1);
+        else if (3 * recentHits <= recentWasted)
+            window = Math.max(0, window - 1);
+        recentHits = recentWasted = 0;
+    }
+}
@@ -0,0 +1,179 @@
+package osp.Memory;
+
+/**
+    Keeps the frames of physical memory sorted into three sets, so that
+    page faults do not have to scan the frame table:
+
+      free  - frames that hold no page
+      clean - frames holding a page that does not need a swap-out
+      dirty - frames holding a page that must be written back first
+
+    A frame that has been handed to a page fault is in none of the sets
+    until the fault fills it (frameFilled) or gives up on it (frameFreed).
+
+    Locking and reservations are changed by OSP behind our back, and so
+    can be the dirty bit, so the sets are only candidates: every frame
+    picked from them is checked again and wrong ones are moved over or
+    skipped.
+
+    @OSPProject Memory
+*/
+class FramePool
+{
+    private final FrameSet free;
+    private final FrameSet clean;
+    private final FrameSet dirty;
+
+    FramePool(int frameTableSize)
+    {
+        free = new FrameSet(frameTableSize);
+        clean = new FrameSet(frameTableSize);
+        dirty = new FrameSet(frameTableSize);
+        for (int i = 0; i < frameTableSize; i++)
+            free.add(MMU.getFrame(i));
+    }
+
+    /** The frame no longer holds a page. */
+    void frameFreed(FrameTableEntry frame)
+    {
+        clean.remove(frame);
+        dirty.remove(frame);
+        free.add(frame);
+    }
+
+    /** The frame was chosen by a page fault and is in flux until it is filled. */
+    void frameTaken(FrameTableEntry frame)
+    {
+        free.remove(frame);
+        clean.remove(frame);
+        dirty.remove(frame);
+    }
+
+    /** The frame has (again) a page in it. */
+    void frameFilled(FrameTableEntry frame)
+    {
+        free.remove(frame);
+        if (frame.isDirty()) {
+            clean.remove(frame);
+            dirty.add(frame);
+        } else {
+            dirty.remove(frame);
+            clean.add(frame);
+        }
+    }
+
+    /** The frame's page was written to. */
+    void frameDirtied(FrameTableEntry frame)
+    {
+        if (clean.contains(frame)) {
+            clean.remove(frame);
+            dirty.add(frame);
+        }
+    }
+
+    /** The frame's page was written back to the swap file. */
+    void frameCleaned(FrameTableEntry frame)
+    {
+        if (dirty.contains(frame)) {
+            dirty.remove(frame);
+            clean.add(frame);
+        }
+    }
+
+    /** @return a free frame that is neither reserved nor locked, or null */
+    FrameTableEntry takeFree()
+    {
+        for (int i = 0; i < free.size(); i++) {
+            FrameTableEntry frame = free.get(i);
+            if (!frame.isReserved() && frame.getLockCount() == 0) {
+                free.remove(frame);
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    /** @return an evictable frame whose page is clean, or null */
+    FrameTableEntry pickClean()
+    {
+        int i = 0;
+        while (i < clean.size()) {
+            FrameTableEntry frame = clean.get(i);
+            if (frame.isDirty()) {
+                // moving it pulls another member into slot i
+                clean.remove(frame);
+                dirty.add(frame);
+            } else if (PageFaultHandler.canEvict(frame))
+                return frame;
+            else
+                i++;
+        }
+        return null;
+    }
+
+    /**
+       @return an evictable clean frame that has not been referenced lately
+       and does not hold a prefetched page still waiting for its first
+       reference, or null
+    */
+    FrameTableEntry pickColdClean()
+    {
+        for (int i = 0; i < clean.size(); i++) {
+            FrameTableEntry frame = clean.get(i);
+            if (!frame.isDirty() && !frame.isReferenced()
+                && PageFaultHandler.canEvict(frame) && !frame.getPage().prefetched)
+                return frame;
+        }
+        return null;
+    }
+
+    /** @return an evictable frame whose page is dirty, or null */
+    FrameTableEntry pickDirty()
+    {
+        int i = 0;
+        while (i < dirty.size()) {
+            FrameTableEntry frame = dirty.get(i);
+            if (!frame.isDirty()) {
+                dirty.remove(frame);
+                clean.add(frame);
+            } else if (PageFaultHandler.canEvict(frame))
+                return frame;
+            else
+                i++;
+        }
+        return null;
+    }
+
+    /**
+       @return the least recently used evictable dirty frame among the
+       older half of MMU.LRU, or null. The age comes from the recency
+       list and not from the reference bit: only the clock and aging
+       policies ever clear that bit, under the others every resident
+       frame stays referenced.
+    */
+    FrameTableEntry pickColdDirty()
+    {
+        int cold = Math.max(1, MMU.LRU.size() / 2);
+        FrameTableEntry frame = MMU.LRU.oldest();
+        for (int i = 0; i < cold && frame != null; i++, frame = MMU.LRU.newer(frame)) {
+            if (frame.getPage() != null && frame.isDirty() && PageFaultHandler.canEvict(frame))
+                return frame;
+        }
+        return null;
+    }
+
+    int getFreeCount()
+    {
+        return free.size();
+    }
+
+    int getCleanCount()
+    {
+        return clean.size();
+    }
+
+    int getDirtyCount()
+    {
+        return dirty.size();
+    }
+}
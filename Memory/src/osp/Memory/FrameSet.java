@@ -0,0 +1,62 @@
+package osp.Memory;
+
+/**
+    A set of frames keyed by frame ID with O(1) add, remove, contains
+    and size. Members are kept densely packed in an array and each
+    frame remembers its slot, so removal swaps the last member into
+    the hole.
+
+    @OSPProject Memory
+*/
+class FrameSet
+{
+    private final int[] members;
+    private final int[] slot;
+    private int size = 0;
+
+    FrameSet(int frameTableSize)
+    {
+        members = new int[frameTableSize];
+        slot = new int[frameTableSize];
+        for (int i = 0; i < frameTableSize; i++)
+            slot[i] = -1;
+    }
+
+    void add(FrameTableEntry frame)
+    {
+        int id = frame.getID();
+        if (slot[id] != -1)
+            return;
+        members[size] = id;
+        slot[id] = size;
+        size++;
+    }
+
+    void remove(FrameTableEntry frame)
+    {
+        int id = frame.getID();
+        int hole = slot[id];
+        if (hole == -1)
+            return;
+        size--;
+        members[hole] = members[size];
+        slot[members[hole]] = hole;
+        slot[id] = -1;
+    }
+
+    boolean contains(FrameTableEntry frame)
+    {
+        return slot[frame.getID()] != -1;
+    }
+
+    /** @return the i-th member, 0 <= i < size(), in no particular order */
+    FrameTableEntry get(int i)
+    {
+        return MMU.getFrame(members[i]);
+    }
+
+    int size()
+    {
+        return size;
+    }
+}
@@ -33,6 +33,13 @@ public class FrameTableEntry extends IflFrameTableEntry
        Feel free to add methods/fields to improve the readability of your code
     */
 
+    /**
+       Bumped by MMU.do_refer() on every write to the frame, so that code
+       that writes the frame back in the background can tell whether the
+       page was changed while the write was in progress.
+    */
+    int writeCount = 0;
+
 }
 
 /*
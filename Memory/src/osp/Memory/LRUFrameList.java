@@ -0,0 +1,95 @@
+package osp.Memory;
+
+/**
+    Recency list over the frames of physical memory, most recently used
+    at the tail and least recently used at the head.
+
+    The list is intrusive and keyed by frame ID: it keeps one prev/next
+    slot per frame in two int arrays, so touching, removing and finding
+    the oldest frame are all O(1), and the memory used is bounded by
+    MMU.getFrameTableSize() no matter how many references are made.
+
+    @OSPProject Memory
+*/
+class LRUFrameList
+{
+    private static final int NIL = -1;
+
+    private final int[] prev;
+    private final int[] next;
+    private final boolean[] linked;
+    private int head = NIL;
+    private int tail = NIL;
+    private int size = 0;
+
+    LRUFrameList(int frameTableSize)
+    {
+        prev = new int[frameTableSize];
+        next = new int[frameTableSize];
+        linked = new boolean[frameTableSize];
+    }
+
+    /** Marks the frame as the most recently used one. */
+    void touch(FrameTableEntry frame)
+    {
+        int id = frame.getID();
+        if (linked[id]) {
+            if (id == tail)
+                return;
+            unlink(id);
+        }
+        prev[id] = tail;
+        next[id] = NIL;
+        if (tail == NIL)
+            head = id;
+        else
+            next[tail] = id;
+        tail = id;
+        linked[id] = true;
+        size++;
+    }
+
+    /** Drops the frame from the list; does nothing if it is not there. */
+    void remove(FrameTableEntry frame)
+    {
+        int id = frame.getID();
+        if (linked[id])
+            unlink(id);
+    }
+
+    /** @return the least recently used frame, or null if the list is empty */
+    FrameTableEntry oldest()
+    {
+        return head == NIL ? null : MMU.getFrame(head);
+    }
+
+    /** @return the frame used right after the given one, or null */
+    FrameTableEntry newer(FrameTableEntry frame)
+    {
+        int id = frame.getID();
+        if (!linked[id] || next[id] == NIL)
+            return null;
+        return MMU.getFrame(next[id]);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    private void unlink(int id)
+    {
+        if (prev[id] == NIL)
+            head = next[id];
+        else
+            next[prev[id]] = next[id];
+        if (next[id] == NIL)
+            tail = prev[id];
+        else
+            prev[next[id]] = prev[id];
+        prev[id] = NIL;
+        next[id] = NIL;
+        linked[id] = false;
+        size--;
+    }
+}
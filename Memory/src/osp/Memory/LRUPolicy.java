@@ -0,0 +1,36 @@
+package osp.Memory;
+
+/**
+    True LRU replacement: evicts the frame that was referenced the
+    longest time ago, using the recency list that MMU.do_refer()
+    keeps up to date on every memory reference.
+
+    @OSPProject Memory
+*/
+class LRUPolicy implements ReplacementPolicy
+{
+    public void frameLoaded(FrameTableEntry frame)
+    {
+        // MMU.LRU is touched by do_handlePageFault() itself
+    }
+
+    public void frameFreed(FrameTableEntry frame)
+    {
+        MMU.LRU.remove(frame);
+    }
+
+    public FrameTableEntry selectVictim()
+    {
+        for (FrameTableEntry frame = MMU.LRU.oldest(); frame != null;
+             frame = MMU.LRU.newer(frame)) {
+            if (PageFaultHandler.canEvict(frame))
+                return frame;
+        }
+        return null;
+    }
+
+    public String toString()
+    {
+        return "LRU";
+    }
+}
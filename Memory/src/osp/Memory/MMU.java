@@ -26,15 +26,43 @@ public class MMU extends IflMMU
 
         @OSPProject Memory
     */
-	static ArrayList<FrameTableEntry> LRU;
-	
+	static LRUFrameList LRU;
+	static FramePool pool;
+	static TLB tlb;
+
+	// address translation: page = address >>> offsetBits, offset = address & offsetMask
+	static int offsetBits;
+	static int offsetMask;
+	static boolean logReferences;
+	// set once init() is done; OSP may report an error before the frame table exists
+	private static boolean initialized = false;
 	
     public static void init()
     {
     	for (int i = 0; i < MMU.getFrameTableSize(); i++) {
 			setFrame(i, new FrameTableEntry(i));
 		}
-		LRU = new ArrayList<FrameTableEntry>();
+		LRU = new LRUFrameList(MMU.getFrameTableSize());
+		pool = new FramePool(MMU.getFrameTableSize());
+		offsetBits = getVirtualAddressBits() - getPageAddressBits();
+		offsetMask = (1 << offsetBits) - 1;
+		MemoryParams.init();
+		MemoryLog.init();
+		logReferences = MemoryLog.isOn(MemoryLog.Debug);
+		int tlbEntries = MemoryParams.getInt("TLBEntries", 0);
+		tlb = tlbEntries > 0
+			? new TLB(tlbEntries, MemoryParams.getInt("TLBAssociativity", 0)) : null;
+		PageFaultHandler.init();
+		FaultAround.init();
+		PFFControl.init();
+		SwapSpace.init();
+		Superpages.init();
+		MemoryMetrics.init();
+		TraceRecorder.init();
+		MemorySnapshot.init();
+		PageOutDaemon.init();
+		MemoryReportDaemon.init();
+		initialized = true;
 
     }
 
@@ -60,11 +88,20 @@ public class MMU extends IflMMU
     static public PageTableEntry do_refer(int memoryAddress,
 					  int referenceType, ThreadCB thread)
     {
-    	 int pageSize = memoryAddress / (int)Math.pow(2.0, getVirtualAddressBits() - getPageAddressBits());
-    	 PageTableEntry page = getPTBR().pages[pageSize];
+    	 int pageNumber = memoryAddress >>> offsetBits;
+    	 PageTable pageTable = getPTBR();
+    	 MemoryMetrics.count(pageTable, MemoryMetrics.References);
+    	 if (TraceRecorder.isOn())
+    		 TraceRecorder.record(pageTable.getTask().getID(), pageNumber,
+    		                      referenceType == MemoryWrite);
+    	 PageTableEntry page = tlb == null ? null : tlb.lookup(pageTable, pageNumber);
+    	 boolean tlbHit = page != null; // a TLB hit is always a valid page
+    	 if (!tlbHit)
+    		 page = pageTable.pages[pageNumber];
     	 
-    	 if(!page.isValid()) {							//if the page is not valid then 
+    	 if(!tlbHit && !page.isValid()) {							//if the page is not valid then 
     		 if (page.getValidatingThread() != null) {	//if the validation thread for pages is not null then
+    			MemoryMetrics.count(pageTable, MemoryMetrics.SoftFaults);
  				thread.suspend(page);					//suspend the current threads on this page
 	    		if (thread.getStatus() == ThreadKill) { // if current thread has been killed then return page
 	    		
@@ -80,25 +117,39 @@ public class MMU extends IflMMU
 			 CPU.interrupt(PageFault);
     		 }
     	 }
-    	 if (thread.getStatus() == ThreadKill) { // check again to see if thread has killed, if so return page
+    	 if (referenceType == MemoryWrite && page.writesHeld) { // the thread that faulted it in is prefetching
+    		 thread.suspend(page);
+    		 if (thread.getStatus() == ThreadKill)
+    			 return page;
+    	 }
+    	 FrameTableEntry frame = page.getFrame();
+    	 if (thread.getStatus() == ThreadKill || frame == null) { // check again to see if thread has killed, or the fault found no frame
     		 return page;
     	 }
     	 else {
-	 		page.getFrame().setReferenced(true);
+	 		frame.setReferenced(true);
+	 		if (page.prefetched)
+	 			FaultAround.pageReferenced(page);
 	 		
 	 		if (referenceType == MemoryWrite) {
-	 				page.getFrame().setDirty(true);
+	 				pool.frameDirtied(frame);
+	 				frame.writeCount++;
+	 				page.swapCopyCurrent = false;
+	 				frame.setDirty(true);
 	 		}
 	 	
     	 }
-    	LRU.add(page.getFrame()); //update LRU queue
-    	int offset = MMU.getVirtualAddressBits()-MMU.getPageAddressBits();
-    	int physical_address = pageSize;
-    	MyOut.print("osp.Memory.MMU", "do_refer(): logical memory = " +
-    			                        memoryAddress + " page # = " + pageSize +
-    			                        " offset = " + offset + " frame # = " + page.getFrame().getID() +
-    			                        "\nPhysical address = " + physical_address);
-    	
+    	LRU.touch(frame); //update LRU queue
+    	if (tlb != null && !tlbHit && page.isValid())
+    		tlb.insert(page);
+    	if (logReferences) {
+    		int offset = memoryAddress & offsetMask;
+    		int physical_address = (frame.getID() << offsetBits) | offset;
+    		MemoryLog.debug("osp.Memory.MMU",
+    			            "do_refer(): logical memory = {} page # = {} offset = {} frame # = {}"
+    			            + "\nPhysical address = {}",
+    			            memoryAddress, pageNumber, offset, frame.getID(), physical_address);
+    	}
     	
  		return page;
     	 
@@ -117,8 +168,13 @@ public class MMU extends IflMMU
      */
     public static void atError()
     {
-        // your code goes here
-
+        MemoryLog.flush();
+        MyOut.print("osp.Memory.MMU", MemoryReportDaemon.report());
+        if (initialized) {
+            StringBuffer s = new StringBuffer("Frame table:\n");
+            MemorySnapshot.renderFrames(s);
+            MyOut.print("osp.Memory.MMU", s.toString());
+        }
     }
 
     /** Called by OSP after printing a warning message. The student
@@ -130,8 +186,8 @@ public class MMU extends IflMMU
      */
     public static void atWarning()
     {
-        // your code goes here
-
+        MemoryLog.flush();
+        MyOut.print("osp.Memory.MMU", MemoryReportDaemon.report());
     }
 
 
@@ -139,154 +195,10 @@ public class MMU extends IflMMU
        Feel free to add methods/fields to improve the readability of your code
     */
 
-    static public void myPrintFramesLine(StringBuffer s)
-    {
-        s.append("|----------|");
-        for(int i = 0; i < getFrameTableSize(); i++)
-            s.append("-");
-        s.append("|\n");
-    }
-
-
     /** Put the status of the frame table into the log file. */
     static public void myPrintTableVertical(StringBuffer s)
     {
-        int i;
-        int frameTableSize = getFrameTableSize();
-
-        myPrintFramesLine(s);
-        // handle most significant digits (when the number of frames > 99)
-        int digits=1+(int)(Math.log(frameTableSize)/Math.log(10));
-        for(i = digits-1; i > 1; i--) {
-            s.append("|          |");
-            for(int j = 0; j < frameTableSize; j++)
-                s.append((int)(j/Math.pow(10,i))%10);
-            s.append("|\n");
-        }
-        // handle 2nd least significant digit
-        s.append("|Frame     |");
-        for(i = 0; i < frameTableSize; i++)
-            s.append((int)(i/10)%10);
-        s.append("|\n");
-        // handle the least significant digit
-        s.append("|number    |");
-        for(i = 0; i < frameTableSize; i++)
-            s.append(i % 10);
-        s.append("|\n");
-        myPrintFramesLine(s);
-
-        s.append("|free      |");
-        for(i = 0; i < frameTableSize; i++)
-            s.append( ( (getFrame(i).getPage()==null) ? "F":" " ) );
-        s.append("|\n");
-
-        s.append("|lock      |");
-        for(i = 0; i < frameTableSize; i++) {
-            int count=getFrame(i).getLockCount();
-            if(count>9)
-                s.append("L");
-            else
-                s.append(count);
-        }
-        s.append("|\n");
-
-        s.append("|reserved  |");
-        for(i = 0; i < frameTableSize; i++)
-            s.append((getFrame(i).isReserved()?"R":" "));
-        s.append("|\n");
-
-        s.append("|dirty     |");
-        for(i = 0; i < frameTableSize; i++)
-            s.append((getFrame(i).isDirty()?"D":" "));
-        s.append("|\n");
-
-        s.append("|referenced|");
-        for(i = 0; i < frameTableSize; i++)
-            s.append((getFrame(i).isReferenced()?"Y":" "));
-        s.append("|\n");
-
-        myPrintFramesLine(s);
-
-        s.append("|          |");
-        for(i = 0; i < frameTableSize; i++) {
-            PageTableEntry page=getFrame(i).getPage();
-            int pageID = page==null?NONE:page.getID();
-            if(pageID>999)
-                s.append("X");
-            else if(pageID==NONE || pageID/100==0)
-                s.append(" ");
-            else
-                s.append(pageID/100%10);
-        }
-        s.append("|\n");
-        s.append("|page      |");
-        for(i = 0; i < frameTableSize; i++) {
-            PageTableEntry page=getFrame(i).getPage();
-            int pageID = page==null?NONE:page.getID();
-            if(pageID>999)
-                s.append("X");
-            else if(pageID==NONE || pageID/10==0)
-                s.append(" ");
-            else
-                s.append(pageID/10%10);
-        }
-        s.append("|\n");
-
-        s.append("|number    |");
-        for(i = 0; i < frameTableSize; i++) {
-            PageTableEntry page=getFrame(i).getPage();
-            int pageID = page==null?NONE:page.getID();
-            if(pageID>999)
-                s.append("X");
-            else if(pageID==NONE)
-                s.append(" ");
-            else
-                s.append(pageID%10);
-        }
-        s.append("|\n");
-        myPrintFramesLine(s);
-
-        s.append("|          |");
-        for(i = 0; i < frameTableSize; i++) {
-            int task=(getFrame(i).getPage() == null) ? NONE :
-            	getFrame(i).getPage().getTask().getID();
-            if(task>999)
-                s.append("X");
-            else if(task==NONE || task/100==0)
-                s.append(" ");
-            else
-                s.append(task/100%10);
-        }
-        s.append("|\n");
-        s.append("|owner     |");
-        for(i = 0; i < frameTableSize; i++) {
-            int task=(getFrame(i).getPage() == null) ? NONE :
-            	getFrame(i).getPage().getTask().getID();
-            if(task>999)
-                s.append("X");
-            else if(task==NONE || task/10==0)
-                s.append(" ");
-            else
-                s.append(task/10%10);
-        }
-        s.append("|\n");
-
-        s.append("|task      |");
-        for(i = 0; i < frameTableSize; i++) {
-            int task=(getFrame(i).getPage() == null) ? NONE :
-            	getFrame(i).getPage().getTask().getID();
-            if(task>999)
-                s.append("X");
-            else if(task==NONE)
-                s.append(" ");
-            else
-                s.append(task%10);
-        }
-        s.append("|\n");
-
-        myPrintFramesLine(s);
-
-        s.append("\n");
+        MemorySnapshot.renderFrames(s);
     }
 }
 
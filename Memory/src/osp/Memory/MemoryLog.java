@@ -0,0 +1,211 @@
+package osp.Memory;
+
+import osp.Hardware.*;
+import osp.Utilities.*;
+
+/**
+    Logging for the Memory module, in front of MyOut.
+
+    Messages have a level and are dropped before anything is built if
+    the level is above LogLevel ([Memory], one of Off, Warning, Info,
+    Debug; Info by default, Warning if ModuleOutputFlag is 0). Hot
+    paths test isOn() first so that not even the argument array is
+    made. The text is a format with {} for each argument and is only
+    put together when the message is written.
+
+    Info and Debug messages go into a ring buffer of LogBuffer entries
+    (default 4096) and are formatted and written to OSP.log in batches:
+    by the MemoryReportDaemon at every snapshot, before a warning, in
+    MMU.atError() and atWarning(), and when the ring is full. A message
+    written later than it was logged carries the tick it was logged
+    at. Only messages that a later report will write out are buffered:
+    without snapshots there is no MemoryReportDaemon, and from the last
+    snapshot on the run can end at any tick, so those messages are
+    written at once. When the ring is full and LogOverflow is Block (the default),
+    the caller writes the batch; with Drop the new message is thrown
+    away instead. Both are counted in the Memory statistics.
+
+    The batches are written by the simulation threads themselves, never
+    by a thread of our own: MyOut.print() locks MyOut and then OSP's log
+    writer, while OSP calls atError() with the writer already locked,
+    so a second thread printing at that moment deadlocks the run. For
+    the same reason no lock of ours is held while MyOut is called.
+
+    @OSPProject Memory
+*/
+class MemoryLog
+{
+    static final int Off = 0;
+    static final int Warning = 1;
+    static final int Info = 2;
+    static final int Debug = 3;
+
+    private static final String[] LevelNames = { "Off", "Warning", "Info", "Debug" };
+
+    /** One slot of the ring; the slots are reused, never reallocated. */
+    private static final class Entry
+    {
+        String module;
+        long tick;
+        String format;
+        Object[] args;
+    }
+
+    private static final Object lock = new Object();
+    private static int level = Info;
+    private static boolean block = true;
+    private static long bufferedUntil = 0; // tick of the last MemoryReportDaemon run
+    private static Entry[] ring = new Entry[0];
+    private static int head = 0;   // next slot to write out
+    private static int count = 0;  // slots in use
+    private static long written = 0;
+    private static long dropped = 0;
+    private static long batches = 0;
+
+    /** Reads the [Memory] keys. Called from MMU.init(). */
+    static void init()
+    {
+        level = MemoryParams.isModuleOutputOn() ? Info : Warning;
+        String name = MemoryParams.getString("LogLevel", null);
+        if (name != null) {
+            int i = LevelNames.length - 1;
+            while (i >= 0 && !LevelNames[i].equalsIgnoreCase(name))
+                i--;
+            if (i >= 0)
+                level = i;
+            else
+                MyOut.warning("osp.Memory.MemoryLog", "Unknown LogLevel `" + name + "'");
+        }
+        block = !MemoryParams.getString("LogOverflow", "Block").equalsIgnoreCase("Drop");
+        bufferedUntil = MemoryParams.getLastSnapshotTick();
+
+        synchronized (lock) {
+            ring = new Entry[Math.max(1, MemoryParams.getInt("LogBuffer", 4096))];
+            for (int i = 0; i < ring.length; i++)
+                ring[i] = new Entry();
+            head = count = 0;
+            written = dropped = batches = 0;
+        }
+    }
+
+    /** @return true if messages of the level are written at all */
+    static boolean isOn(int messageLevel)
+    {
+        return messageLevel <= level;
+    }
+
+    static void info(String module, String format, Object... args)
+    {
+        if (Info <= level)
+            enqueue(module, format, args);
+    }
+
+    static void debug(String module, String format, Object... args)
+    {
+        if (Debug <= level)
+            enqueue(module, format, args);
+    }
+
+    static void warning(String module, String format, Object... args)
+    {
+        if (Warning > level)
+            return;
+        flush();
+        MyOut.warning(module, format(format, args));
+    }
+
+    /** Writes whatever is in the ring, oldest first. */
+    static void flush()
+    {
+        synchronized (lock) {
+            if (count == 0)
+                return;
+            batches++;
+        }
+        while (writeOldest())
+            ;
+    }
+
+    static String report()
+    {
+        synchronized (lock) {
+            return "Log (" + LevelNames[level] + "): " + written + " written, "
+                   + dropped + " dropped, " + batches + " batches";
+        }
+    }
+
+    private static void enqueue(String module, String format, Object[] args)
+    {
+        if (HClock.get() >= bufferedUntil) {
+            flush();
+            synchronized (lock) {
+                written++;
+            }
+            MyOut.print(module, format(format, args));
+            return;
+        }
+        while (true) {
+            synchronized (lock) {
+                if (count < ring.length) {
+                    Entry entry = ring[(head + count) % ring.length];
+                    entry.module = module;
+                    entry.tick = HClock.get();
+                    entry.format = format;
+                    entry.args = args;
+                    count++;
+                    return;
+                }
+                if (!block) {
+                    dropped++;
+                    return;
+                }
+            }
+            flush();
+        }
+    }
+
+    /** Takes the oldest message out of the ring and writes it; false if the ring was empty. */
+    private static boolean writeOldest()
+    {
+        String module;
+        long tick;
+        String format;
+        Object[] args;
+        synchronized (lock) {
+            if (count == 0)
+                return false;
+            Entry entry = ring[head];
+            module = entry.module;
+            tick = entry.tick;
+            format = entry.format;
+            args = entry.args;
+            entry.args = null;
+            head = (head + 1) % ring.length;
+            count--;
+            written++;
+        }
+
+        String text = format(format, args);
+        if (tick != HClock.get())
+            text = "(logged at " + tick + ") " + text;
+        MyOut.print(module, text);
+        return true;
+    }
+
+    /** @return the format with each {} replaced by the next argument */
+    static String format(String format, Object[] args)
+    {
+        if (args == null || args.length == 0)
+            return format;
+        StringBuilder s = new StringBuilder(format.length() + 16 * args.length);
+        int from = 0;
+        for (int i = 0; i < args.length; i++) {
+            int at = format.indexOf("{}", from);
+            if (at < 0)
+                break;
+            s.append(format, from, at).append(args[i]);
+            from = at + 2;
+        }
+        return s.append(format, from, format.length()).toString();
+    }
+}
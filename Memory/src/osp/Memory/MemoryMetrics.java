@@ -0,0 +1,118 @@
+package osp.Memory;
+
+import java.util.ArrayList;
+import osp.Hardware.*;
+import osp.Utilities.*;
+
+/**
+    Counters of the Memory module, kept per task (in the task's
+    PageTable) and for the whole run:
+
+      references   calls of MMU.do_refer()
+      faults       page faults handled for the task
+      hard         faults that swapped the page in themselves
+      soft         references and faults that found the page valid or
+                   being brought in by another thread
+      write-backs  dirty pages of the task written to its swap file
+      evictions    pages of the task taken out of their frame
+      lock         faults taken by do_lock() for an IORB
+      no memory    faults that returned NotEnoughMemory
+
+    plus a histogram of how many ticks (HClock) the completed faults
+    took, in power-of-two buckets. Everything is printed with the
+    periodic Memory statistics and by MMU.atError()/atWarning(); a
+    task's own counters are also printed when its memory is freed.
+
+    @OSPProject Memory
+*/
+class MemoryMetrics
+{
+    static final int References = 0;
+    static final int Faults = 1;
+    static final int HardFaults = 2;
+    static final int SoftFaults = 3;
+    static final int WriteBacks = 4;
+    static final int Evictions = 5;
+    static final int LockFaults = 6;
+    static final int NoMemory = 7;
+    static final int Counters = 8;
+
+    private static final String[] Names = {
+        "references", "faults", "hard", "soft",
+        "write-backs", "evictions", "lock", "no memory"
+    };
+
+    /** Bucket 0 counts faults of 0 ticks, bucket i those of 2^(i-1) .. 2^i - 1 ticks. */
+    private static final int LatencyBuckets = 16;
+
+    private static long[] global = new long[Counters];
+    private static long[] latency = new long[LatencyBuckets];
+    private static final ArrayList<PageTable> live = new ArrayList<PageTable>();
+
+    /** Called from MMU.init(). */
+    static void init()
+    {
+        global = new long[Counters];
+        latency = new long[LatencyBuckets];
+        live.clear();
+    }
+
+    static void count(PageTable pageTable, int counter)
+    {
+        global[counter]++;
+        pageTable.metrics[counter]++;
+    }
+
+    /** Records a completed fault that started at the given tick. */
+    static void faultCompleted(long startTick)
+    {
+        long ticks = HClock.get() - startTick;
+        int bucket = 0;
+        while (ticks > 0 && bucket < LatencyBuckets - 1) {
+            ticks >>= 1;
+            bucket++;
+        }
+        latency[bucket]++;
+    }
+
+    static void pageTableCreated(PageTable pageTable)
+    {
+        live.add(pageTable);
+    }
+
+    /** Prints the task's counters for the last time and forgets it. */
+    static void pageTableDeallocated(PageTable pageTable)
+    {
+        if (!live.remove(pageTable))
+            return;
+        if (MemoryLog.isOn(MemoryLog.Info))
+            MemoryLog.info("osp.Memory.PageTable", "{}",
+                           appendCounters(new StringBuffer("Task " + pageTable.getTask().getID()
+                                                           + " done:"),
+                                          pageTable.metrics));
+    }
+
+    static String report()
+    {
+        StringBuffer s = appendCounters(new StringBuffer("Metrics:"), global);
+        s.append("\n    fault ticks:");
+        int last = LatencyBuckets - 1;
+        while (last > 0 && latency[last] == 0)
+            last--;
+        for (int i = 0; i <= last; i++)
+            s.append(' ').append(i == 0 ? 0 : 1L << (i - 1)).append("+=").append(latency[i]);
+        for (int i = 0; i < live.size(); i++) {
+            PageTable pageTable = live.get(i);
+            appendCounters(s.append("\n    task ").append(pageTable.getTask().getID())
+                            .append(':'), pageTable.metrics);
+        }
+        return s.toString();
+    }
+
+    private static StringBuffer appendCounters(StringBuffer s, long[] counters)
+    {
+        for (int i = 0; i < Counters; i++)
+            s.append(' ').append(Names[i]).append(' ').append(counters[i]);
+        return s;
+    }
+}
@@ -0,0 +1,133 @@
+package osp.Memory;
+
+import java.io.*;
+import java.util.*;
+import osp.Utilities.*;
+
+/**
+    Reads the student-defined keys of the [Memory] section of the
+    simulation parameter file (e.g. ReplacementPolicy). OSP itself
+    ignores keys it does not know, so they can live next to
+    FramesOfPhysicalMemory and friends in the params.*.osp files.
+    A few [General] keys, such as ModuleOutputFlag, are read as well.
+
+    The file is the one passed to OSP with -paramFile, or
+    Misc/params.osp when none is given, the same default OSP uses.
+    It can also be forced with -Dosp.paramFile=...
+
+    @OSPProject Memory
+*/
+class MemoryParams
+{
+    private static final String DefaultParamFile = "Misc/params.osp";
+
+    private static Properties values = new Properties();
+    private static Properties general = new Properties();
+
+    /** Loads the [Memory] and [General] sections. Missing files leave every key at its default. */
+    static void init()
+    {
+        values = new Properties();
+        general = new Properties();
+        String fileName = getParamFileName();
+        BufferedReader in = null;
+        try {
+            in = new BufferedReader(new FileReader(fileName));
+            Properties section = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#"))
+                    continue;
+                if (line.startsWith("[")) {
+                    section = line.equalsIgnoreCase("[Memory]") ? values
+                              : line.equalsIgnoreCase("[General]") ? general : null;
+                    continue;
+                }
+                String[] keyValue = line.split("\\s+", 2);
+                if (section != null && keyValue.length == 2)
+                    section.setProperty(keyValue[0], keyValue[1].trim());
+            }
+        } catch (IOException e) {
+            MyOut.print("osp.Memory.MemoryParams",
+                        "Cannot read " + fileName + ", using default Memory parameters");
+        } finally {
+            if (in != null) {
+                try { in.close(); } catch (IOException e) { }
+            }
+        }
+    }
+
+    static String getString(String key, String defaultValue)
+    {
+        return values.getProperty(key, defaultValue);
+    }
+
+    static int getInt(String key, int defaultValue)
+    {
+        String value = values.getProperty(key);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            MyOut.warning("osp.Memory.MemoryParams",
+                          "Bad value `" + value + "' for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    static boolean getBoolean(String key, boolean defaultValue)
+    {
+        return getInt(key, defaultValue ? 1 : 0) != 0;
+    }
+
+    /**
+       @return false if ModuleOutputFlag in [General] is 0, in which case
+       MyOut.print() of student modules goes nowhere and the messages
+       need not be built at all
+    */
+    static boolean isModuleOutputOn()
+    {
+        return !general.getProperty("ModuleOutputFlag", "1").equals("0");
+    }
+
+    /** @return the number of ticks between two OSP snapshots, 0 if there are none */
+    static int getSnapshotInterval()
+    {
+        try {
+            int length = Integer.parseInt(general.getProperty("SimulationLength", "0"));
+            int snapshots = Integer.parseInt(general.getProperty("NumberOfSnapshots", "0"));
+            return snapshots > 0 ? length / snapshots : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** @return the tick of the last OSP snapshot, 0 if there are none */
+    static long getLastSnapshotTick()
+    {
+        try {
+            int snapshots = Integer.parseInt(general.getProperty("NumberOfSnapshots", "0"));
+            return (long)getSnapshotInterval() * Math.max(0, snapshots);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String getParamFileName()
+    {
+        String fileName = System.getProperty("osp.paramFile");
+        if (fileName != null)
+            return fileName;
+
+        // OSP keeps -paramFile to itself, so look at the command line
+        String command = System.getProperty("sun.java.command", "");
+        String[] args = command.split("\\s+");
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("-paramFile"))
+                return args[i + 1];
+        }
+        return DefaultParamFile;
+    }
+}
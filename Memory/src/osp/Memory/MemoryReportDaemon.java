@@ -0,0 +1,57 @@
+package osp.Memory;
+
+import osp.IFLModules.*;
+import osp.Threads.*;
+import osp.Utilities.*;
+
+/**
+    Puts the statistics of the student Memory module into the log at
+    the same rate as OSP takes its snapshots, i.e. every
+    SimulationLength / NumberOfSnapshots ticks, so the last report
+    covers the whole run. OSP gives the student modules no hook into
+    the snapshot itself.
+
+    @OSPProject Memory
+*/
+class MemoryReportDaemon implements DaemonInterface
+{
+    /** Registers the daemon with OSP. Called from MMU.init(). */
+    static void init()
+    {
+        int interval = MemoryParams.getSnapshotInterval();
+        if (interval > 0)
+            Daemon.create("MemoryReport", new MemoryReportDaemon(), interval);
+    }
+
+    public void unleash(ThreadCB thread)
+    {
+        MemoryLog.info("osp.Memory.MMU", "{}", report());
+        MemorySnapshot.writeCSV();
+        // the last snapshot may be the end of the run
+        MemoryLog.flush();
+    }
+
+    /** @return the statistics of every part of the module that keeps some */
+    static String report()
+    {
+        StringBuffer s = new StringBuffer("Memory statistics:");
+        s.append("\n  ").append(MemoryMetrics.report());
+        s.append("\n  ").append(SwapSpace.report());
+        if (MMU.tlb != null)
+            s.append("\n  ").append(MMU.tlb.report());
+        if (Superpages.isEnabled())
+            s.append("\n  ").append(Superpages.report());
+        if (PFFControl.isEnabled())
+            s.append("\n  ").append(PFFControl.report());
+        if (PageOutDaemon.isEnabled())
+            s.append("\n  ").append(PageOutDaemon.report());
+        if (FaultAround.isEnabled())
+            s.append("\n  ").append(FaultAround.report());
+        if (TraceRecorder.isOn()) {
+            TraceRecorder.flush();
+            s.append("\n  ").append(TraceRecorder.report());
+        }
+        s.append("\n  ").append(MemoryLog.report());
+        return s.toString();
+    }
+}
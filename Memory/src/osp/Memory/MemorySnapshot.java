@@ -0,0 +1,235 @@
+package osp.Memory;
+
+import java.io.*;
+import osp.Hardware.*;
+import osp.Utilities.*;
+
+/**
+    Snapshot of the frame table for the tables printed by
+    MMU.myPrintTableVertical() and PageTable.myPrintTableVertical(),
+    and for the CSV dump.
+
+    capture() reads every frame once into primitive arrays (page,
+    owning task, lock count, flags); the tables are then rendered from
+    those arrays into one reusable StringBuilder, without going back to
+    the frames or computing digits with Math.pow()/Math.log(). The
+    builder is shared, so it is copied into the caller's buffer before
+    the lock is let go.
+
+    If the [Memory] key SnapshotCSV names a file, the MemoryReportDaemon
+    appends the snapshot to it at every OSP snapshot, one line per
+    frame:
+
+      tick,frame,page,task,locks,reserved,dirty,referenced
+
+    with -1 for the page and task of a free frame.
+
+    @OSPProject Memory
+*/
+class MemorySnapshot
+{
+    private static final int NONE = -1;
+    private static final int Reserved = 1;
+    private static final int Dirty = 2;
+    private static final int Referenced = 4;
+
+    private static final MemorySnapshot frames = new MemorySnapshot();
+    private static Writer csv = null;
+
+    private int size = 0;
+    private int[] page = new int[0];
+    private int[] task = new int[0];
+    private int[] locks = new int[0];
+    private byte[] flags = new byte[0];
+    private final StringBuilder text = new StringBuilder();
+
+    /** Opens the CSV file if SnapshotCSV is set. Called from MMU.init(). */
+    static void init()
+    {
+        String fileName = MemoryParams.getString("SnapshotCSV", null);
+        if (fileName == null)
+            return;
+        try {
+            csv = new BufferedWriter(new FileWriter(fileName));
+            csv.write("tick,frame,page,task,locks,reserved,dirty,referenced\n");
+            csv.flush();
+        } catch (IOException e) {
+            MemoryLog.warning("osp.Memory.MemorySnapshot", "Cannot write {}: {}", fileName, e);
+            csv = null;
+        }
+    }
+
+    /** Appends the frame table, rendered as by the template's MMU.myPrintTableVertical(). */
+    static synchronized void renderFrames(StringBuffer out)
+    {
+        frames.capture();
+        out.append(frames.renderFrameTable());
+    }
+
+    /** Appends the current frame table to the SnapshotCSV file, if there is one. */
+    static synchronized void writeCSV()
+    {
+        if (csv == null)
+            return;
+        frames.capture();
+        StringBuilder s = frames.text;
+        s.setLength(0);
+        long tick = HClock.get();
+        for (int i = 0; i < frames.size; i++) {
+            s.append(tick).append(',').append(i).append(',')
+             .append(frames.page[i]).append(',').append(frames.task[i]).append(',')
+             .append(frames.locks[i]).append(',')
+             .append((frames.flags[i] & Reserved) != 0 ? 1 : 0).append(',')
+             .append((frames.flags[i] & Dirty) != 0 ? 1 : 0).append(',')
+             .append((frames.flags[i] & Referenced) != 0 ? 1 : 0).append('\n');
+        }
+        try {
+            csv.append(s);
+            csv.flush();
+        } catch (IOException e) {
+            MemoryLog.warning("osp.Memory.MemorySnapshot", "SnapshotCSV stopped: {}", e);
+            csv = null;
+        }
+    }
+
+    /** Appends the page table, rendered as by the template's PageTable.myPrintTableVertical(). */
+    static synchronized void renderPageTable(PageTable pageTable, StringBuffer out)
+    {
+        StringBuilder s = frames.text;
+        s.setLength(0);
+        PageTableEntry[] pages = pageTable.pages;
+        int n = pages.length;
+        int[] frameIDs = new int[n];
+        int valid = 0;
+        for (int i = 0; i < n; i++) {
+            FrameTableEntry frame = pages[i].getFrame();
+            frameIDs[i] = frame == null ? NONE : frame.getID();
+            if (pages[i].isValid())
+                valid++;
+        }
+
+        s.append("Page table for Task ").append(pageTable.getTask().getID()).append(":\n");
+        s.append("  Valid pages: ").append(valid).append(" out of ").append(n).append('\n');
+        line(s, "|------|", n);
+        indexRows(s, n, "|      |", "|Page  |", "|number|");
+        line(s, "|------|", n);
+        s.append("|valid |");
+        for (int i = 0; i < n; i++)
+            s.append(pages[i].isValid() ? 'Y' : ' ');
+        s.append("|\n");
+        line(s, "|------|", n);
+        valueRows(s, frameIDs, n, "|      |", "|frame |", "|number|");
+        line(s, "|------|", n);
+        s.append('\n');
+        out.append(s);
+    }
+
+    /** Reads the state of every frame, once. */
+    private void capture()
+    {
+        size = MMU.getFrameTableSize();
+        if (page.length != size) {
+            page = new int[size];
+            task = new int[size];
+            locks = new int[size];
+            flags = new byte[size];
+        }
+        for (int i = 0; i < size; i++) {
+            FrameTableEntry frame = MMU.getFrame(i);
+            PageTableEntry p = frame.getPage();
+            page[i] = p == null ? NONE : p.getID();
+            task[i] = p == null ? NONE : p.getTask().getID();
+            locks[i] = frame.getLockCount();
+            flags[i] = (byte)((frame.isReserved() ? Reserved : 0)
+                              | (frame.isDirty() ? Dirty : 0)
+                              | (frame.isReferenced() ? Referenced : 0));
+        }
+    }
+
+    private CharSequence renderFrameTable()
+    {
+        StringBuilder s = text;
+        s.setLength(0);
+        line(s, "|----------|", size);
+        indexRows(s, size, "|          |", "|Frame     |", "|number    |");
+        line(s, "|----------|", size);
+
+        s.append("|free      |");
+        for (int i = 0; i < size; i++)
+            s.append(page[i] == NONE ? 'F' : ' ');
+        s.append("|\n|lock      |");
+        for (int i = 0; i < size; i++)
+            s.append(locks[i] > 9 ? 'L' : (char)('0' + locks[i]));
+        s.append("|\n");
+        flagRow(s, "|reserved  |", Reserved, 'R');
+        flagRow(s, "|dirty     |", Dirty, 'D');
+        flagRow(s, "|referenced|", Referenced, 'Y');
+        line(s, "|----------|", size);
+        valueRows(s, page, size, "|          |", "|page      |", "|number    |");
+        line(s, "|----------|", size);
+        valueRows(s, task, size, "|          |", "|owner     |", "|task      |");
+        line(s, "|----------|", size);
+        s.append('\n');
+        return s;
+    }
+
+    private void flagRow(StringBuilder s, String label, int flag, char mark)
+    {
+        s.append(label);
+        for (int i = 0; i < size; i++)
+            s.append((flags[i] & flag) != 0 ? mark : ' ');
+        s.append("|\n");
+    }
+
+    private static void line(StringBuilder s, String label, int n)
+    {
+        s.append(label);
+        for (int i = 0; i < n; i++)
+            s.append('-');
+        s.append("|\n");
+    }
+
+    /** The column numbers 0..n-1, one digit per row, most significant first. */
+    private static void indexRows(StringBuilder s, int n, String blank, String tens, String units)
+    {
+        int digits = 1;
+        for (int p = 10; p <= n; p *= 10)
+            digits++;
+        if (digits < 2)
+            digits = 2;
+        int divisor = 1;
+        for (int d = 1; d < digits; d++)
+            divisor *= 10;
+        for (int d = digits - 1; d >= 0; d--, divisor /= 10) {
+            if (d > 1)
+                s.append(blank);
+            else if (d == 1)
+                s.append(tens);
+            else
+                s.append(units);
+            for (int i = 0; i < n; i++)
+                s.append((char)('0' + i / divisor % 10));
+            s.append("|\n");
+        }
+    }
+
+    /** Values below 1000 in three rows of digits; NONE is blank, larger values are X. */
+    private static void valueRows(StringBuilder s, int[] values, int n,
+                                  String blank, String tens, String units)
+    {
+        String[] labels = { blank, tens, units };
+        for (int row = 0, divisor = 100; row < 3; row++, divisor /= 10) {
+            s.append(labels[row]);
+            for (int i = 0; i < n; i++) {
+                int v = values[i];
+                if (v > 999)
+                    s.append('X');
+                else if (v == NONE || (divisor > 1 && v / divisor == 0))
+                    s.append(' ');
+                else
+                    s.append((char)('0' + v / divisor % 10));
+            }
+            s.append("|\n");
+        }
+    }
+}
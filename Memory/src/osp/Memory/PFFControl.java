@@ -0,0 +1,146 @@
+package osp.Memory;
+
+/**
+    Page-fault-frequency control of per-task frame quotas.
+
+    With FrameAllocation PFF in [Memory] every page table gets a frame
+    quota. Each fault of a task looks at how many references the task
+    made since its previous fault, which is its fault rate: fewer than
+    PFFLowerRefs (default 10) means the task needs more frames and its
+    quota grows, more than PFFUpperRefs (default 100) means it has more
+    than it needs and the quota shrinks. Counting references rather than
+    ticks keeps the rate apart from how long the faults themselves take.
+
+    Free frames go to whoever faults. Only once they are used up does
+    the quota count: a task that is at or over its quota replaces one
+    of its own pages, so a thrashing task only hurts itself, and a task
+    under its quota steals from a task that is over its quota before
+    falling back to the global replacement policy. The quotas together
+    never exceed the frame table: new tasks and growing quotas only get
+    frames nobody else has a quota on.
+
+    With FrameAllocation Global (the default) all of this is off and
+    frames are one pool, as before.
+
+    @OSPProject Memory
+*/
+class PFFControl
+{
+    private static boolean enabled = false;
+    private static int lowerRefs;
+    private static int upperRefs;
+    private static int initialQuota;
+    private static int quotaTotal = 0;
+
+    private static long localReplacements = 0;
+    private static long stolenFrames = 0;
+
+    /** Reads the FrameAllocation keys. Called from MMU.init(). */
+    static void init()
+    {
+        enabled = MemoryParams.getString("FrameAllocation", "Global")
+                  .equalsIgnoreCase("PFF");
+        lowerRefs = MemoryParams.getInt("PFFLowerRefs", 10);
+        upperRefs = MemoryParams.getInt("PFFUpperRefs", 100);
+        initialQuota = MemoryParams.getInt("PFFInitialQuota",
+                                           Math.max(1, MMU.getFrameTableSize() / 8));
+        quotaTotal = 0;
+        localReplacements = stolenFrames = 0;
+    }
+
+    static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /** Gives a new page table its initial quota, out of the frames nobody has a quota on. */
+    static void pageTableCreated(PageTable pageTable)
+    {
+        if (!enabled)
+            return;
+        pageTable.frameQuota = Math.max(0, Math.min(initialQuota,
+                                                    MMU.getFrameTableSize() - quotaTotal));
+        quotaTotal += pageTable.frameQuota;
+        pageTable.lastFaultReference = 0;
+    }
+
+    /** Returns the quota of a page table whose task is gone. */
+    static void pageTableDeallocated(PageTable pageTable)
+    {
+        if (!enabled)
+            return;
+        quotaTotal -= pageTable.frameQuota;
+        pageTable.frameQuota = 0;
+    }
+
+    /** Adjusts the quota of the page table from the references since its last fault. */
+    static void pageFault(PageTable pageTable)
+    {
+        if (!enabled)
+            return;
+        long references = pageTable.metrics[MemoryMetrics.References];
+        long sinceLastFault = references - pageTable.lastFaultReference;
+        pageTable.lastFaultReference = references;
+
+        if (sinceLastFault < lowerRefs && quotaTotal < MMU.getFrameTableSize()) {
+            pageTable.frameQuota++;
+            quotaTotal++;
+        } else if (sinceLastFault > upperRefs && pageTable.frameQuota > 1) {
+            pageTable.frameQuota--;
+            quotaTotal--;
+        }
+    }
+
+    /**
+       Picks a frame for a fault of the page table: a free one if there
+       is any, else the one the quota says should be replaced.
+
+       @return the frame, or null to let GetNewFrame() decide as usual
+    */
+    static FrameTableEntry selectFrame(PageTable pageTable)
+    {
+        if (!enabled)
+            return null;
+
+        FrameTableEntry frame = MMU.pool.takeFree();
+        if (frame != null)
+            return frame;
+
+        if (pageTable.residentPages >= pageTable.frameQuota) {
+            frame = oldestEvictable(pageTable);
+            if (frame != null)
+                localReplacements++;
+            return frame;
+        }
+
+        frame = oldestEvictable(null);
+        if (frame != null)
+            stolenFrames++;
+        return frame;
+    }
+
+    static String report()
+    {
+        return "PFF frame allocation: " + localReplacements + " local replacements, "
+               + stolenFrames + " frames taken from tasks over their quota, "
+               + quotaTotal + " of " + MMU.getFrameTableSize() + " frames under quota";
+    }
+
+    /**
+       @return the least recently used evictable frame of the page table,
+       or of any page table over its quota if pageTable is null
+    */
+    private static FrameTableEntry oldestEvictable(PageTable pageTable)
+    {
+        for (FrameTableEntry frame = MMU.LRU.oldest(); frame != null;
+             frame = MMU.LRU.newer(frame)) {
+            if (!PageFaultHandler.canEvict(frame))
+                continue;
+            PageTable owner = frame.getPage().pageTable;
+            if (pageTable == null ? owner.residentPages > owner.frameQuota
+                                  : owner == pageTable)
+                return frame;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,226 @@
+package osp.Memory;
+
+import osp.Threads.*;
+import osp.Hardware.*;
+import osp.Tasks.*;
+import osp.IFLModules.*;
+import osp.Utilities.*;
+
+/**
+    One page fault, run as a state machine:
+
+        ReserveFrame -> WriteBack -> ReadIn -> Install -> Prefetch
+
+    Each stage leaves the fault in a state the next one starts from;
+    WriteBack is skipped for a clean or free frame and Prefetch for
+    faults taken by do_lock(). The thread may be killed whenever a
+    stage blocks on swap I/O, so run() checks after every stage and
+    sends the faults killed before Install through abort(), the one
+    cleanup path.
+
+    During Prefetch the page is valid and other threads may read it,
+    but writes to it wait (PageTableEntry.writesHeld) until the fault
+    returns, and the frame stays reserved so the page cannot be
+    evicted. OSP's checker marks a frame dirty in its own books only
+    when a write reference has finished, so a write landing while this
+    thread is suspended on a prefetch read would be blamed on this
+    thread's reference. The threads that waited for the page to come
+    in are only resumed when the fault returns, too: a resumed thread
+    cannot be suspended again before it is dispatched, so they could
+    not be made to wait for the write hold. OSP also wants the fault
+    of a thread killed during Prefetch to fail with the page invalid;
+    as no write can have reached the page, it is simply dropped from
+    its frame again.
+
+    The stages cannot be driven by IORB completions: the student
+    module gets no callback when an IORB is done, and OSP requires
+    the page to be swapped in with a blocking read() before it is made
+    valid. Faults of different threads are still in flight at the same
+    time, since each one only suspends its own thread.
+
+    @OSPProject Memory
+*/
+class PageFault
+{
+    static final int ReserveFrame = 0;
+    static final int WriteBack = 1;
+    static final int ReadIn = 2;
+    static final int Install = 3;
+    static final int Prefetch = 4;
+    static final int Done = 5;
+
+    private final ThreadCB thread;
+    private final int referenceType;
+    private final PageTableEntry page;
+    private final Event event = new SystemEvent("PageFault");
+    private FrameTableEntry frame = null;
+    private boolean wroteBack = false;
+    private int stage = ReserveFrame;
+    private long startTick;
+
+    PageFault(ThreadCB thread, int referenceType, PageTableEntry page)
+    {
+        this.thread = thread;
+        this.referenceType = referenceType;
+        this.page = page;
+    }
+
+    /** @return SUCCESS, FAILURE or NotEnoughMemory, as do_handlePageFault() */
+    int run()
+    {
+        thread.suspend(event);
+        startTick = HClock.get();
+        MemoryMetrics.count(page.pageTable, MemoryMetrics.Faults);
+        if (referenceType == GlobalVariables.MemoryLock)
+            MemoryMetrics.count(page.pageTable, MemoryMetrics.LockFaults);
+
+        while (stage != Done) {
+            switch (stage) {
+            case ReserveFrame:
+                if (!reserveFrame()) {
+                    MemoryMetrics.count(page.pageTable, MemoryMetrics.NoMemory);
+                    return finish(GlobalVariables.NotEnoughMemory);
+                }
+                stage = frame.getPage() != null && frame.isDirty() ? WriteBack : ReadIn;
+                break;
+            case WriteBack:
+                writeBack();
+                stage = ReadIn;
+                break;
+            case ReadIn:
+                readIn();
+                stage = Install;
+                break;
+            case Install:
+                install();
+                stage = referenceType == GlobalVariables.MemoryLock ? Done : Prefetch;
+                break;
+            case Prefetch:
+                page.writesHeld = true;
+                FaultAround.prefetch(thread, page);
+                page.writesHeld = false;
+                stage = Done;
+                break;
+            }
+            if (stage != Done && thread.getStatus() == GlobalVariables.ThreadKill)
+                return abort();
+        }
+        unreserve();
+        page.notifyThreads();
+        if (thread.getStatus() == GlobalVariables.ThreadKill) {
+            uninstall();
+            return finish(GlobalVariables.FAILURE);
+        }
+        MemoryMetrics.faultCompleted(startTick);
+        return finish(GlobalVariables.SUCCESS);
+    }
+
+    /** Takes a frame for the page and reserves it, unless none can be had. */
+    private boolean reserveFrame()
+    {
+        PFFControl.pageFault(page.pageTable);
+        frame = PageFaultHandler.GetNewFrame(page.pageTable);
+        if (frame == null)
+            return false;
+        MMU.pool.frameTaken(frame);
+        frame.setReserved(thread.getTask());
+        page.setValidatingThread(thread);
+        return true;
+    }
+
+    /** Swaps the dirty victim in the frame out. */
+    private void writeBack()
+    {
+        PageTableEntry victim = frame.getPage();
+        SwapSpace.pageOut(victim);
+        MemoryMetrics.count(victim.pageTable, MemoryMetrics.WriteBacks);
+        victim.getTask().getSwapFile().write(victim.getID(), victim, thread);
+        if (thread.getStatus() == GlobalVariables.ThreadKill)
+            return;
+        frame.setDirty(false);
+        victim.swapCopyCurrent = true;
+        wroteBack = true;
+    }
+
+    /**
+       Evicts what is left in the frame and swaps the page in. The
+       eviction is only counted here, once a dirty victim's write-back
+       has gone through.
+    */
+    private void readIn()
+    {
+        PageTableEntry victim = frame.getPage();
+        if (victim != null && !wroteBack)
+            SwapSpace.pageDiscarded(victim);
+        PageFaultHandler.releaseVictim(frame);
+        page.setFrame(frame);
+        page.pageTable.frameFilled(frame);
+        SwapSpace.pageIn(page);
+        MemoryMetrics.count(page.pageTable, MemoryMetrics.HardFaults);
+        page.getTask().getSwapFile().read(page.getID(), page, thread);
+    }
+
+    /** Makes the page valid in its frame. */
+    private void install()
+    {
+        frame.setPage(page);
+        page.swapCopyCurrent = true;
+        page.setValid(true);
+        Superpages.pageValidated(page);
+        frame.setReferenced(true);
+        frame.setDirty(false);
+
+        MMU.LRU.touch(frame);
+        PageFaultHandler.policy.frameLoaded(frame);
+        MMU.pool.frameFilled(frame);
+        page.setValidatingThread(null);
+    }
+
+    /** Takes the page out of its frame again, for a thread killed during Prefetch. */
+    private void uninstall()
+    {
+        // unless the task died and freed the frame meanwhile
+        if (frame.getPage() == page && page.isValid()) {
+            MMU.LRU.remove(frame);
+            PageFaultHandler.releaseVictim(frame);
+            MMU.pool.frameFreed(frame);
+        }
+    }
+
+    private void unreserve()
+    {
+        TaskCB task = thread.getTask();
+        if (frame.getReserved() == task)
+            frame.setUnreserved(task);
+    }
+
+    /**
+       Cleans up after the thread was killed before Install. The frame goes
+       back to the pool, unreserved: as in use if it still holds the
+       valid victim (killed during WriteBack), as free otherwise.
+    */
+    private int abort()
+    {
+        // only past ReadIn has the frame been given to the page
+        if (stage > ReadIn)
+            PageFaultHandler.abandonFrame(frame, page);
+        unreserve();
+        PageTableEntry inFrame = frame.getPage();
+        if (inFrame != null && inFrame.isValid())
+            MMU.pool.frameFilled(frame);
+        else
+            MMU.pool.frameFreed(frame);
+        page.setValidatingThread(null);
+        page.notifyThreads();
+        return finish(GlobalVariables.FAILURE);
+    }
+
+    private int finish(int result)
+    {
+        if (result == GlobalVariables.NotEnoughMemory)
+            page.notifyThreads();
+        event.notifyThreads();
+        ThreadCB.dispatch();
+        return result;
+    }
+}
@@ -76,106 +76,109 @@ public class PageFaultHandler extends IflPageFaultHandler
 					 int referenceType,
 					 PageTableEntry page)
     {
-    	TaskCB Task = thread.getTask();
     	if(page.isValid()) {
+    		MemoryMetrics.count(page.pageTable, MemoryMetrics.SoftFaults);
     		page.notifyThreads();
     		ThreadCB.dispatch();
     		return FAILURE;
     	}
-    	
-    	Event nw_event = new SystemEvent("PageFault"); //maybe systemEvent
-    	thread.suspend(nw_event);  
-    	
-    	FrameTableEntry frame = GetNewFrame();
-    	if(frame == null){ //problem 5
-    	    nw_event.notifyThreads();
-    		page.notifyThreads();
-    		ThreadCB.dispatch();
-    		return NotEnoughMemory;
-    	}
-    	
-
-    	if(frame != null) {
-    		frame.setReserved(thread.getTask());   
-         	page.setValidatingThread(thread);
-    	}
-         PageTableEntry nw_page = frame.getPage();
-         if(nw_page != null){
-             if(frame.isDirty()){
-                 PageTableEntry nw_pageTable = frame.getPage();
-                 TaskCB nw_task = nw_pageTable.getTask();
-                 nw_task.getSwapFile().write(nw_pageTable.getID(),nw_pageTable, thread);
-                 if(thread.getStatus() == ThreadKill) {
-     				page.notifyThreads();
-     				page.setValidatingThread(null);
-     				nw_event.notifyThreads();
-     				ThreadCB.dispatch();
-     				return FAILURE;
-                }
-                frame.setDirty(false);
-             }
-                frame.setPage(null);
-                nw_page.setValid(false);
-                nw_page.setFrame(null);
-         }
-         page.setFrame(frame);
-         TaskCB task2 = page.getTask();
-         task2.getSwapFile().read(page.getID(),page,thread);
-         
-         if (thread.getStatus()== ThreadKill){
-             page.setValidatingThread(null);
-             page.notifyThreads();
-             nw_event.notifyThreads();
-             ThreadCB.dispatch();
-             return FAILURE;
-         }
-         frame.setPage(page);
-         page.setValid(true);
-         frame.setReferenced(true);
-         frame.setDirty(false);
-         
-         if(frame.getReserved()==Task){
-             frame.setUnreserved(Task);
-         }
-         
-        MMU.LRU.add(frame);
-    	page.setValid(true);
-    	page.setValidatingThread(null);
-    	
-    	
-		page.notifyThreads();
-		nw_event.notifyThreads();
-		ThreadCB.dispatch();
-		return SUCCESS;
-    	
-    	
-        
-
+    	return new PageFault(thread, referenceType, page).run();
     }
     
     
-    private static FrameTableEntry GetNewFrame() {
-        FrameTableEntry nw_frame = null;
-        for ( int i = 0; i < MMU.getFrameTableSize(); i++ ) {
-          nw_frame = MMU.getFrame( i );
-          if ( ( nw_frame.getPage() == null ) && ( !nw_frame.isReserved() ) && ( nw_frame.getLockCount() == 0 ) ) {
-            return nw_frame;
-          }
-        }
-        for ( int i = 0; i < MMU.getFrameTableSize(); i++ ) {
-          nw_frame = MMU.getFrame( i );
-          if ( ( !nw_frame.isDirty() ) && ( !nw_frame.isReserved() ) && ( nw_frame.getLockCount() == 0 ) ) {
-            return nw_frame;
-          }
+    /**
+       Picks the frame for a page fault of the page table: the one
+       PFFControl wants if per-task quotas are on, else a free frame from
+       MMU.pool if there is one, else whatever the replacement policy
+       chooses.
+
+       @return the frame, or null if every frame is reserved or locked
+    */
+    static FrameTableEntry GetNewFrame(PageTable pageTable) {
+        FrameTableEntry nw_frame = PFFControl.selectFrame(pageTable);
+        if ( nw_frame != null ) {
+          return nw_frame;
         }
-        for ( int i = 0; i < MMU.getFrameTableSize(); i++ ) {
-          nw_frame = MMU.getFrame( i );
-          if ( ( !nw_frame.isReserved() ) && ( nw_frame.getLockCount() == 0 ) ) {
-            return nw_frame;
-          }
+        nw_frame = MMU.pool.takeFree();
+        if ( nw_frame != null ) {
+          return nw_frame;
         }
-        return MMU.getFrame( MMU.getFrameTableSize() - 1 );
+        return policy.selectVictim();
       }
+
+    /**
+       Sets up the replacement policy named by the ReplacementPolicy
+       key of the [Memory] parameters. Called from MMU.init().
+    */
+    static void init()
+    {
+        String name = MemoryParams.getString("ReplacementPolicy", "LRU");
+        if (name.equalsIgnoreCase("FIFO"))
+            policy = new FIFOPolicy();
+        else if (name.equalsIgnoreCase("Clock"))
+            policy = new ClockPolicy();
+        else if (name.equalsIgnoreCase("EnhancedClock"))
+            policy = new EnhancedClockPolicy();
+        else if (name.equalsIgnoreCase("Aging"))
+            policy = new AgingPolicy();
+        else if (name.equalsIgnoreCase("CleanFirst"))
+            policy = new CleanFirstPolicy();
+        else {
+            if (!name.equalsIgnoreCase("LRU"))
+                MemoryLog.warning("osp.Memory.PageFaultHandler",
+                                  "Unknown ReplacementPolicy `{}', using LRU", name);
+            policy = new LRUPolicy();
+        }
+        MemoryLog.info("osp.Memory.PageFaultHandler", "Replacement policy: {}", policy);
+    }
+
+    /**
+       Takes the (clean) page out of the frame: the page becomes invalid
+       and everything that remembers where it was is told about it.
+    */
+    static void releaseVictim(FrameTableEntry frame)
+    {
+        PageTableEntry victim = frame.getPage();
+        if (victim == null)
+            return; // its task died and freed it during the swap-out
+        frame.setPage(null);
+        frame.setReferenced(false);
+        policy.frameFreed(frame);
+        if (MMU.tlb != null)
+            MMU.tlb.invalidate(victim);
+        FaultAround.pageEvicted(victim);
+        MemoryMetrics.count(victim.pageTable, MemoryMetrics.Evictions);
+        victim.pageTable.frameReleased(frame);
+        Superpages.pageInvalidated(victim);
+        victim.setValid(false);
+        victim.setFrame(null);
+    }
+
+    /**
+       Undoes the setFrame() of a page whose thread was killed while the
+       page was read into the frame. If the task lives on, the invalid
+       page must not keep pointing at the frame, which goes back to the
+       pool; if it died, do_deallocateMemory() has emptied the frame.
+       OSP itself may have emptied the frame when it killed the thread,
+       so the page table, not the frame, says whether it is still held.
+    */
+    static void abandonFrame(FrameTableEntry frame, PageTableEntry page)
+    {
+        if (page.pageTable.isResident(frame) && !page.isValid()) {
+            if (frame.getPage() == page)
+                frame.setPage(null);
+            page.pageTable.frameReleased(frame);
+            page.setFrame(null);
+        }
+    }
+
+    /** A frame may be given to another page only if it is in use, unreserved and unlocked. */
+    static boolean canEvict(FrameTableEntry frame)
+    {
+        return frame.getPage() != null && !frame.isReserved() && frame.getLockCount() == 0;
+    }
+
+    static ReplacementPolicy policy;
 }
 
 /*
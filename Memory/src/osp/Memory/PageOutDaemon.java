@@ -0,0 +1,165 @@
+package osp.Memory;
+
+import osp.IFLModules.*;
+import osp.Threads.*;
+import osp.Utilities.*;
+
+/**
+    Background cleaner for dirty frames. Every PageOutInterval ticks it
+    checks how many frames a page fault could take without a swap-out
+    (free plus clean frames in MMU.pool). While that number is below
+    PageOutLowWatermark it writes dirty, unlocked frames from the least
+    recently used half of MMU.LRU back to their task's swap file and
+    marks them clean, so most faults only pay for the swap-in.
+
+    Each cold dirty page is written together with the dirty,
+    evictable pages next to it in its task (up to PageOutCluster pages
+    in all), one block after the other in ascending order. OSP has no
+    multi-block request, but back-to-back writes of adjacent blocks of
+    the same swap file keep the disk head where it is instead of paying
+    a seek per page.
+
+    The page is locked by the IORB during the write, so it cannot be
+    evicted under the daemon. It can still be written to, though, so
+    the frame is only marked clean if its writeCount did not move while
+    the write was in progress. The number of clusters of each size is
+    logged with every pass and reported in the Memory statistics.
+
+    All keys live in the [Memory] section of the parameter file;
+    the daemon is off unless PageOutInterval is positive.
+
+    @OSPProject Memory
+*/
+class PageOutDaemon implements DaemonInterface
+{
+    private final int lowWatermark;
+    private final int clusterSize;
+    private int pagesWritten; // by the current pass
+
+    /** bySize[n] is the number of clusters of n pages written; empty when off */
+    private static long[] bySize = new long[0];
+
+    private PageOutDaemon(int lowWatermark, int clusterSize)
+    {
+        this.lowWatermark = lowWatermark;
+        this.clusterSize = clusterSize;
+    }
+
+    /** Registers the daemon with OSP if it is enabled. Called from MMU.init(). */
+    static void init()
+    {
+        bySize = new long[0];
+        int interval = MemoryParams.getInt("PageOutInterval", 0);
+        if (interval <= 0)
+            return;
+        int lowWatermark = MemoryParams.getInt("PageOutLowWatermark",
+                                               MMU.getFrameTableSize() / 4);
+        int clusterSize = Math.max(1, MemoryParams.getInt("PageOutCluster", 1));
+        bySize = new long[clusterSize + 1];
+        Daemon.create("PageOut", new PageOutDaemon(lowWatermark, clusterSize), interval);
+        MemoryLog.info("osp.Memory.PageOutDaemon",
+                       "Page-out daemon every {} ticks, low watermark {} frames"
+                       + ", clusters of up to {} pages", interval, lowWatermark, clusterSize);
+    }
+
+    public void unleash(ThreadCB thread)
+    {
+        int writes = 0;
+        int clusters = 0;
+        pagesWritten = 0;
+
+        while (MMU.pool.getFreeCount() + MMU.pool.getCleanCount() < lowWatermark) {
+            FrameTableEntry frame = MMU.pool.pickColdDirty();
+            if (frame == null)
+                break;
+            int cleaned = writeCluster(frame.getPage(), thread);
+            clusters++;
+            if (cleaned == 0 || thread.getStatus() == GlobalVariables.ThreadKill)
+                break;
+            writes += cleaned;
+        }
+
+        if (writes > 0)
+            MemoryLog.info("osp.Memory.PageOutDaemon",
+                           "Cleaned {} frames with {} writes in {} clusters; free {}, clean {}, dirty {}",
+                           writes, pagesWritten, clusters, MMU.pool.getFreeCount(),
+                           MMU.pool.getCleanCount(), MMU.pool.getDirtyCount());
+    }
+
+    /**
+       Writes the page and the writable pages around it, at most
+       clusterSize in all, in ascending block order.
+
+       @return the number of frames cleaned
+    */
+    private int writeCluster(PageTableEntry page, ThreadCB thread)
+    {
+        PageTableEntry[] pages = page.pageTable.pages;
+        int first = page.getID();
+        int last = first;
+        while (last - first + 1 < clusterSize) {
+            if (canWrite(pages, first - 1))
+                first--;
+            else if (canWrite(pages, last + 1))
+                last++;
+            else
+                break;
+        }
+
+        int cleaned = 0;
+        int written = 0;
+        for (int i = first; i <= last; i++) {
+            // an earlier write may have let anything happen to this one
+            if (!canWrite(pages, i))
+                continue;
+            PageTableEntry next = pages[i];
+            FrameTableEntry frame = next.getFrame();
+            int writeCount = frame.writeCount;
+            SwapSpace.pageOut(next);
+            MemoryMetrics.count(next.pageTable, MemoryMetrics.WriteBacks);
+            next.getTask().getSwapFile().write(next.getID(), next, thread);
+            written++;
+            if (thread.getStatus() == GlobalVariables.ThreadKill)
+                break;
+            if (frame.getPage() == next && frame.writeCount == writeCount) {
+                frame.setDirty(false);
+                next.swapCopyCurrent = true;
+                MMU.pool.frameCleaned(frame);
+                cleaned++;
+            }
+        }
+        bySize[written]++;
+        pagesWritten += written;
+        return cleaned;
+    }
+
+    /** @return true if the daemon is running */
+    static boolean isEnabled()
+    {
+        return bySize.length > 0;
+    }
+
+    static String report()
+    {
+        StringBuffer sizes = new StringBuffer();
+        long clusters = 0;
+        long pages = 0;
+        for (int n = 1; n < bySize.length; n++) {
+            sizes.append(' ').append(n).append(':').append(bySize[n]);
+            clusters += bySize[n];
+            pages += n * bySize[n];
+        }
+        return "Page-out: " + clusters + " clusters, " + pages + " pages written;"
+               + " clusters by size" + sizes;
+    }
+
+    /** @return true if pages[id] exists and sits dirty in a frame that could be evicted */
+    private static boolean canWrite(PageTableEntry[] pages, int id)
+    {
+        if (id < 0 || id >= pages.length || !pages[id].isValid())
+            return false;
+        FrameTableEntry frame = pages[id].getFrame();
+        return frame != null && frame.getPage() == pages[id] && frame.isDirty()
+               && PageFaultHandler.canEvict(frame);
+    }
+}
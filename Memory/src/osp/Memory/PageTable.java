@@ -6,7 +6,7 @@ package osp.Memory;
 
     @OSPProject Memory
 */
-import java.lang.Math;
+import java.util.BitSet;
 import osp.Tasks.*;
 import osp.Utilities.*;
 import osp.IFLModules.*;
@@ -21,17 +21,25 @@ public class PageTable extends IflPageTable
 
 	as its first statement.
 
+	Every entry is created up front. The table cannot be sparse:
+	OSP's TaskCB.setPageTable() walks the whole pages[] array and
+	calls getID() on each entry as soon as the table is installed,
+	and the IFL picks random pages out of pages[] for references.
+
 	@OSPProject Memory
     */
     public PageTable(TaskCB ownerTask)
     {
         super(ownerTask);
         
-        pages = new PageTableEntry[(int) Math.pow(2, MMU.getPageAddressBits())];
+        pages = new PageTableEntry[1 << MMU.getPageAddressBits()];
 		
 		for (int i = 0; i < pages.length; i++) {
 			pages[i] = new PageTableEntry(this, i);
 		}
+		PFFControl.pageTableCreated(this);
+		MemoryMetrics.pageTableCreated(this);
+		Superpages.pageTableCreated(this);
 
     }
 
@@ -39,13 +47,21 @@ public class PageTable extends IflPageTable
        Frees up main memory occupied by the task.
        Then unreserves the freed pages, if necessary.
 
+       Only the frames in residentFrames are visited, so this costs
+       O(resident pages of the task), not O(frame table size). A frame
+       is freed only if it holds one of this task's pages: OSP keeps one
+       page per frame, so a frame that another task's page has taken
+       over belongs to that task alone and is left alone.
+
        @OSPProject Memory
     */
     public void do_deallocateMemory()
     {
     	TaskCB task = getTask();
+    	if (MMU.tlb != null)
+    		MMU.tlb.invalidateTask(this);
     	
-    	for(int i=0; i<MMU.getFrameTableSize(); i++){
+    	for(int i = residentFrames.nextSetBit(0); i >= 0; i = residentFrames.nextSetBit(i + 1)){
 
             FrameTableEntry frame = MMU.getFrame(i);
             PageTableEntry page = frame.getPage();
@@ -53,6 +69,8 @@ public class PageTable extends IflPageTable
             
             if(page != null && page.getTask() == task){
             	MMU.LRU.remove(frame);
+            	PageFaultHandler.policy.frameFreed(frame);
+            	MMU.pool.frameFreed(frame);
 
                 frame.setPage(null); 
 
@@ -68,6 +86,12 @@ public class PageTable extends IflPageTable
               page.setValid(false);
             }
     	}
+    	residentFrames.clear();
+    	residentPages = 0;
+    	SwapSpace.release(this);
+    	Superpages.release(this);
+    	PFFControl.pageTableDeallocated(this);
+    	MemoryMetrics.pageTableDeallocated(this);
     }
 
 
@@ -75,105 +99,62 @@ public class PageTable extends IflPageTable
        Feel free to add methods/fields to improve the readability of your code
     */
 
-    private final void myPrintPagesLine(StringBuffer s)
+    /** Frames holding a page of this task, by frame ID. */
+    private final BitSet residentFrames = new BitSet();
+
+    /** Pages of this task that have a block in its swap file (see SwapSpace). */
+    final BitSet swapBlocks = new BitSet();
+
+    /** Regions of this task that are promoted to superpages (see Superpages). */
+    final BitSet superpages = new BitSet();
+
+    /** Valid pages in each superpage region. */
+    int[] validInRegion;
+
+    /** Number of this task's pages that are in a frame. */
+    int residentPages = 0;
+
+    /**
+       Called when one of this task's pages is given the frame. This is
+       done right after setFrame(), before the swap-in: the frame is
+       the page's from then on, and if the task is killed during the
+       read do_deallocateMemory() must still find it here.
+    */
+    void frameFilled(FrameTableEntry frame)
     {
-        s.append("|------|");
-        for(int i = 0; i < MMU.getNumberOfPages(); i++)
-            s.append("-");
-        s.append("|\n");
+        if (!residentFrames.get(frame.getID())) {
+            residentFrames.set(frame.getID());
+            residentPages++;
+        }
     }
 
-    private int getNumberOfValidPages()
+    /** Called when one of this task's pages has been taken out of the frame. */
+    void frameReleased(FrameTableEntry frame)
     {
-    	int numValidPages = 0;
-    	for (int i = 0; i < MMU.getNumberOfPages(); i++) {
-    		if (pages[i].isIflValid()) {
-    			numValidPages++;
-    		}
-    	}
-    	return numValidPages;
+        if (residentFrames.get(frame.getID())) {
+            residentFrames.clear(frame.getID());
+            residentPages--;
+        }
     }
-   
+
+    /** @return true if the frame holds a page of this task */
+    boolean isResident(FrameTableEntry frame)
+    {
+        return residentFrames.get(frame.getID());
+    }
+
+    /** The task's counters, indexed by the MemoryMetrics constants. */
+    final long[] metrics = new long[MemoryMetrics.Counters];
+
+    /** Frames the task may hold before it has to replace its own pages (see PFFControl). */
+    int frameQuota = 0;
+
+    /** References the task had made at its last page fault (see PFFControl). */
+    long lastFaultReference = 0;
+
     public void myPrintTableVertical(StringBuffer s)
     {
-    	TaskCB ownerTask = getTask();
-    	int i;
-	    int numOfPages = pages.length;
-	
-	    s.append("Page table for Task " +ownerTask.getID()+":\n");
-	
-	    s.append("  Valid pages: " + numOfPages
-	             +" out of "+pages.length+"\n");
-	
-	    myPrintPagesLine(s);
-	    // this handles the most significant digits 
-	    // (when the number of pages > 99)
-	    int digits=1+(int)(Math.log(numOfPages)/Math.log(10));
-	    for(i=digits-1;i>1;i--) {
-	        s.append("|      |");
-	        for(int j=0;j<numOfPages;j++)
-	            s.append((int)(j/Math.pow(10,i))%10);
-	        s.append("|\n");
-	    }
-	    // handle 2nd least significant digit
-	    s.append("|Page  |");
-	    for(i=0;i<numOfPages;i++)
-	        s.append((int)(i/10)%10);
-	    s.append("|\n");
-	    // handle the least significant digit
-	    s.append("|number|");
-	    for(i=0;i<numOfPages;i++)
-	        s.append(i % 10);
-	    s.append("|\n");
-	    myPrintPagesLine(s);
-	
-	    s.append("|valid |");
-	    for(i=0;i<numOfPages;i++)
-	        s.append((pages[i].isValid()?"Y":" "));
-	    s.append("|\n");
-	
-	    myPrintPagesLine(s);
-	    s.append("|      |");
-	    for(i=0;i<numOfPages;i++) {
-	        FrameTableEntry frame=pages[i].getFrame();
-	        int frameID=frame==null? NONE : frame.getID();
-	        if(frameID>999)
-	            s.append("X");
-	        else if(frameID==NONE || frameID/100==0)
-	            s.append(" ");
-	        else
-	            s.append(frameID/100%10);
-	    }
-	    s.append("|\n");
-	    s.append("|frame |");
-	    for(i=0;i<numOfPages;i++) {
-	        FrameTableEntry frame=pages[i].getFrame();
-	        int frameID=frame==null? NONE : frame.getID();
-	        if(frameID>999)
-	            s.append("X");
-	        else if(frameID==NONE || frameID/10==0)
-	            s.append(" ");
-	        else
-	            s.append(frameID/10%10);
-	    }
-	    s.append("|\n");
-	
-	    s.append("|number|");
-	    for(i=0;i<numOfPages;i++)
-	    {
-	        FrameTableEntry frame=pages[i].getFrame();
-	        int frameID=frame==null? NONE : frame.getID();
-	        if(frameID>999)
-	            s.append("X");
-	        else if(frameID==NONE)
-	            s.append(" ");
-	        else
-	            s.append(frameID%10);
-	    }
-	    s.append("|\n");
-	    myPrintPagesLine(s);
-	    
-	    s.append("\n");
+    	MemorySnapshot.renderPageTable(this, s);
     }
 }
 
@@ -29,6 +29,7 @@ public class PageTableEntry extends IflPageTableEntry
     {
     	
         super(ownerPageTable,pageNumber);
+        pageTable = ownerPageTable;
 
     }
 
@@ -66,12 +67,15 @@ public class PageTableEntry extends IflPageTableEntry
     		
     	
     		else if(getValidatingThread() == null){
-				if (PageFaultHandler.do_handlePageFault(thread, MemoryLock, this)==FAILURE){
+				if (PageFaultHandler.handlePageFault(thread, MemoryLock, this)==FAILURE){
 					return FAILURE;
 				}
 	    	}
     			
     	}
+		// NotEnoughMemory, or a validating thread that was killed, leaves the page out
+		if (!isValid() || getFrame() == null)
+			return FAILURE;
 		getFrame().incrementLockCount();
 		return SUCCESS;
 			
@@ -94,6 +98,31 @@ public class PageTableEntry extends IflPageTableEntry
        Feel free to add methods/fields to improve the readability of your code
     */
 
+    /** The page table this entry belongs to, even after its task is gone. */
+    final PageTable pageTable;
+
+    /** Brought in by FaultAround and not referenced since. */
+    boolean prefetched = false;
+
+    /**
+       Set while the thread that faulted the page in prefetches the
+       pages after it; MMU.do_refer() makes writes to the page wait.
+    */
+    boolean writesHeld = false;
+
+    /**
+       The page's block in the swap file holds what the frame holds:
+       set by a swap-in and by a write-out that no write to the page
+       overlapped, cleared by MMU.do_refer() on a MemoryWrite.
+    */
+    boolean swapCopyCurrent = false;
+
+    /** @return true if the page has been written to the swap file at least once */
+    boolean hasSwapCopy()
+    {
+        return SwapSpace.hasBlock(this);
+    }
+
 }
 
 /*
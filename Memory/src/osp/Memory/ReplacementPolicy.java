@@ -0,0 +1,31 @@
+package osp.Memory;
+
+/**
+    A page replacement policy. PageFaultHandler asks the policy for a
+    victim once it has run out of free frames, and tells it about every
+    frame that gets a page loaded into it or freed.
+
+    The policy in use is chosen by the ReplacementPolicy key of the
+    [Memory] section of the parameter file: FIFO, LRU, Clock,
+    EnhancedClock, Aging or CleanFirst. LRU is used when the key is
+    missing.
+
+    @OSPProject Memory
+*/
+public interface ReplacementPolicy
+{
+    /** Called after a page has been swapped into the frame. */
+    void frameLoaded(FrameTableEntry frame);
+
+    /** Called after the frame's page has been evicted or deallocated. */
+    void frameFreed(FrameTableEntry frame);
+
+    /**
+       Chooses a frame to evict. Only frames that hold a page, are not
+       reserved and are not locked may be returned
+       (see PageFaultHandler.canEvict()).
+
+       @return the victim frame, or null if no frame can be evicted
+    */
+    FrameTableEntry selectVictim();
+}
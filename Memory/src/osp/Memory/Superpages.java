@@ -0,0 +1,109 @@
+package osp.Memory;
+
+import java.util.Arrays;
+
+/**
+    Superpage promotion for the TLB. With SuperpagePages in [Memory]
+    set to a power of two N > 1, each page table is split into aligned
+    regions of N pages. A region is promoted when all N of its pages
+    are valid, and from then on one TLB entry translates every page of
+    it. It is demoted as soon as one of its pages is evicted, which also
+    drops the region's TLB entry, and its pages go back to one entry
+    each.
+
+    This only changes how the TLB is filled; the page table keeps
+    one PageTableEntry per page. OSP's TaskCB.setPageTable() and the
+    IFL walk pages[] page by page, and every page must still be
+    swapped in by its own fault, so neither the table nor the number
+    of faults can shrink. Which frames hold the pages of a region does
+    not matter either: the software TLB maps to PageTableEntry objects,
+    not to frame addresses, so a region needs no contiguous frames.
+
+    @OSPProject Memory
+*/
+class Superpages
+{
+    private static int shift = 0; // log2 of the pages per superpage, 0 when off
+    private static int promotedNow = 0;
+    private static long promotions = 0;
+    private static long demotions = 0;
+
+    /** Reads SuperpagePages. Called from MMU.init(). */
+    static void init()
+    {
+        int pagesPer = MemoryParams.getInt("SuperpagePages", 0);
+        shift = 0;
+        while ((2 << shift) <= pagesPer && shift < MMU.getPageAddressBits())
+            shift++;
+        promotedNow = 0;
+        promotions = demotions = 0;
+    }
+
+    static boolean isEnabled()
+    {
+        return shift > 0;
+    }
+
+    /** @return the number of the region holding the page */
+    static int regionOf(int pageNo)
+    {
+        return pageNo >>> shift;
+    }
+
+    /** Gives a new page table its per-region counts. */
+    static void pageTableCreated(PageTable pageTable)
+    {
+        pageTable.validInRegion = new int[shift == 0 ? 0 : pageTable.pages.length >>> shift];
+    }
+
+    /** @return true if the page lies in a promoted region */
+    static boolean isPromoted(PageTable pageTable, int pageNo)
+    {
+        return shift > 0 && pageTable.superpages.get(pageNo >>> shift);
+    }
+
+    /** Called right after the page was made valid. */
+    static void pageValidated(PageTableEntry page)
+    {
+        if (shift == 0)
+            return;
+        PageTable pageTable = page.pageTable;
+        int region = page.getID() >>> shift;
+        if (++pageTable.validInRegion[region] == 1 << shift) {
+            pageTable.superpages.set(region);
+            promotedNow++;
+            promotions++;
+        }
+    }
+
+    /** Called right before the page is made invalid. */
+    static void pageInvalidated(PageTableEntry page)
+    {
+        if (shift == 0)
+            return;
+        PageTable pageTable = page.pageTable;
+        int region = page.getID() >>> shift;
+        if (pageTable.superpages.get(region)) {
+            pageTable.superpages.clear(region);
+            promotedNow--;
+            demotions++;
+        }
+        pageTable.validInRegion[region]--;
+    }
+
+    /** Forgets every region of the table; called when its memory is freed. */
+    static void release(PageTable pageTable)
+    {
+        if (shift == 0)
+            return;
+        promotedNow -= pageTable.superpages.cardinality();
+        pageTable.superpages.clear();
+        Arrays.fill(pageTable.validInRegion, 0);
+    }
+
+    static String report()
+    {
+        return "Superpages (" + (1 << shift) + " pages): " + promotedNow + " promoted, "
+               + promotions + " promotions, " + demotions + " demotions";
+    }
+}
@@ -0,0 +1,98 @@
+package osp.Memory;
+
+/**
+    Swap-space manager: keeps track of which blocks of a task's swap
+    file hold a copy of one of its pages. A block is allocated the
+    first time its page is written out, by PageFaultHandler or by the
+    PageOutDaemon, and all blocks of a task are released when
+    PageTable.do_deallocateMemory() frees its memory.
+
+    OSP does not let a task's swap file grow on demand:
+    TaskCB.do_create() has to create it with 2^VirtualAddressBits
+    bytes, and the simulator checks that size. Nor may a fault
+    zero-fill a page, since setValid() is refused unless the page was
+    swapped in with a blocking read(). So the block map cannot save any
+    I/O yet. It shows how much swap space the tasks really use,
+    which is reported in the Memory statistics.
+
+    For the same reason the swap-ins of pages that were never written
+    out, which a zero-fill would save, and the evictions of pages whose
+    swap copy is current (PageTableEntry.swapCopyCurrent), which cost no
+    I/O, are only counted.
+
+    @OSPProject Memory
+*/
+class SwapSpace
+{
+    private static int blocksInUse = 0;
+    private static int peakBlocksInUse = 0;
+    private static long allocated = 0;
+    private static long reads = 0;
+    private static long firstTouchReads = 0;
+    private static long writes = 0;
+    private static long discards = 0;
+    private static long staleDiscards = 0;
+
+    /** Called from MMU.init(). */
+    static void init()
+    {
+        blocksInUse = peakBlocksInUse = 0;
+        allocated = reads = firstTouchReads = writes = discards = staleDiscards = 0;
+    }
+
+    /** Called before the page is written out; allocates its block on the first page-out. */
+    static void pageOut(PageTableEntry page)
+    {
+        writes++;
+        PageTable pageTable = page.pageTable;
+        if (pageTable.swapBlocks.get(page.getID()))
+            return;
+        pageTable.swapBlocks.set(page.getID());
+        allocated++;
+        if (++blocksInUse > peakBlocksInUse)
+            peakBlocksInUse = blocksInUse;
+    }
+
+    /** Called before the page is swapped in. */
+    static void pageIn(PageTableEntry page)
+    {
+        reads++;
+        if (!page.hasSwapCopy())
+            firstTouchReads++;
+    }
+
+    /**
+       Called when a clean page is evicted without a write. Its swap
+       copy should be current; one that is not would lose the page's
+       last writes, and is counted apart.
+    */
+    static void pageDiscarded(PageTableEntry page)
+    {
+        if (page.swapCopyCurrent)
+            discards++;
+        else
+            staleDiscards++;
+    }
+
+    /** @return true if the page has been written to the swap file at least once */
+    static boolean hasBlock(PageTableEntry page)
+    {
+        return page.pageTable.swapBlocks.get(page.getID());
+    }
+
+    /** Releases every block of the task. */
+    static void release(PageTable pageTable)
+    {
+        blocksInUse -= pageTable.swapBlocks.cardinality();
+        pageTable.swapBlocks.clear();
+    }
+
+    static String report()
+    {
+        return "Swap: " + blocksInUse + " blocks in use, peak " + peakBlocksInUse
+               + ", " + allocated + " allocated; " + reads + " reads ("
+               + firstTouchReads + " of never written pages), " + writes
+               + " writes, " + discards + " clean evictions, " + staleDiscards
+               + " with a stale swap copy";
+    }
+}
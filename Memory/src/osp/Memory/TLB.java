@@ -0,0 +1,153 @@
+package osp.Memory;
+
+import osp.Tasks.*;
+
+/**
+    Software translation lookaside buffer in front of the page tables.
+    It caches (task, page number) -> page translations for valid
+    pages, so that a hit in MMU.do_refer() skips the page table and the
+    validity checks.
+
+    The TLB has TLBEntries entries split into sets of TLBAssociativity
+    ways: an associativity of 1 makes it direct-mapped, 0 (or one equal
+    to TLBEntries) makes it fully associative. Within a set the least
+    recently used way is replaced. TLBEntries 0 turns the TLB off.
+
+    An entry must be dropped whenever its page stops being valid, i.e.
+    when the page is evicted (invalidate()) and when its task's memory
+    is deallocated (invalidateTask()).
+
+    A page in a region promoted to a superpage (see Superpages) is
+    cached under the region instead, with the key ~region, so that one
+    entry translates the whole region. Evicting any page of the region
+    drops that entry too.
+
+    @OSPProject Memory
+*/
+class TLB
+{
+    private final int sets;
+    private final int ways;
+    private final TaskCB[] owner;
+    private final int[] pageNumber;
+    private final PageTableEntry[] page;
+    private final long[] lastUse;
+    private long clock = 0;
+
+    private long hits = 0;
+    private long superpageHits = 0;
+    private long misses = 0;
+
+    TLB(int entries, int associativity)
+    {
+        if (associativity <= 0 || associativity > entries)
+            associativity = entries;
+        ways = associativity;
+        sets = entries / associativity;
+        owner = new TaskCB[sets * ways];
+        pageNumber = new int[sets * ways];
+        page = new PageTableEntry[sets * ways];
+        lastUse = new long[sets * ways];
+    }
+
+    /** @return the cached page, or null on a miss */
+    PageTableEntry lookup(PageTable pageTable, int pageNo)
+    {
+        TaskCB task = pageTable.getTask();
+        int i = find(task, pageNo);
+        if (i < 0 && Superpages.isEnabled()) {
+            i = find(task, ~Superpages.regionOf(pageNo));
+            if (i >= 0)
+                superpageHits++;
+        }
+        if (i < 0) {
+            misses++;
+            return null;
+        }
+        hits++;
+        lastUse[i] = ++clock;
+        return pageNumber[i] < 0 ? pageTable.pages[pageNo] : page[i];
+    }
+
+    /** Caches the translation of a page that has just been found valid. */
+    void insert(PageTableEntry entry)
+    {
+        TaskCB task = entry.getTask();
+        int pageNo = entry.getID();
+        if (Superpages.isPromoted(entry.pageTable, pageNo))
+            pageNo = ~Superpages.regionOf(pageNo);
+        int first = setOf(task, pageNo) * ways;
+        int victim = first;
+        for (int i = first; i < first + ways; i++) {
+            if (owner[i] == null || (owner[i] == task && pageNumber[i] == pageNo)) {
+                victim = i;
+                break;
+            }
+            if (lastUse[i] < lastUse[victim])
+                victim = i;
+        }
+        owner[victim] = task;
+        pageNumber[victim] = pageNo;
+        page[victim] = entry;
+        lastUse[victim] = ++clock;
+    }
+
+    /** Drops the translation of the page, and of its superpage, if cached. */
+    void invalidate(PageTableEntry entry)
+    {
+        TaskCB task = entry.getTask();
+        int i = find(task, entry.getID());
+        if (i >= 0)
+            clear(i);
+        if (Superpages.isEnabled()) {
+            i = find(task, ~Superpages.regionOf(entry.getID()));
+            if (i >= 0)
+                clear(i);
+        }
+    }
+
+    /** Drops every translation of the page table. */
+    void invalidateTask(PageTable pageTable)
+    {
+        TaskCB task = pageTable.getTask();
+        for (int i = 0; i < owner.length; i++) {
+            if (owner[i] == task)
+                clear(i);
+        }
+    }
+
+    String report()
+    {
+        long lookups = hits + misses;
+        String mode = ways == 1 ? "direct-mapped"
+                      : sets == 1 ? "fully associative" : ways + "-way";
+        return "TLB (" + owner.length + " entries, " + mode + "): "
+               + hits + " hits"
+               + (Superpages.isEnabled() ? " (" + superpageHits + " by superpages)" : "")
+               + ", " + misses + " misses, hit ratio "
+               + (lookups == 0 ? 0 : (100 * hits / lookups)) + "%";
+    }
+
+    /** @return the entry caching the key (a page number, or ~region), or -1 */
+    private int find(TaskCB task, int key)
+    {
+        int first = setOf(task, key) * ways;
+        for (int i = first; i < first + ways; i++) {
+            if (owner[i] == task && pageNumber[i] == key)
+                return i;
+        }
+        return -1;
+    }
+
+    private void clear(int i)
+    {
+        owner[i] = null;
+        page[i] = null;
+    }
+
+    private int setOf(TaskCB task, int pageNo)
+    {
+        int hash = pageNo ^ (task.getID() * 31);
+        return (hash & 0x7fffffff) % sets;
+    }
+}
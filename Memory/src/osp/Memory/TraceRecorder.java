@@ -0,0 +1,116 @@
+package osp.Memory;
+
+import java.io.*;
+import osp.Hardware.*;
+import osp.Utilities.*;
+
+/**
+    Records every memory reference made through MMU.do_refer() to a
+    binary trace file, for TraceReplay. Off unless the [Memory] key
+    ReferenceTrace names the file.
+
+    The file starts with the 4 bytes "OSPT" and a version byte, then
+    holds one record per reference, each a sequence of unsigned LEB128
+    varints:
+
+      tick delta   ticks since the previous record, zigzag encoded
+      task         ID of the task
+      page         page number << 1, plus 1 for a MemoryWrite
+
+    Most records take 3 or 4 bytes. They go through a buffered stream
+    that is flushed with every Memory statistics report and closed when
+    the JVM exits, since OSP has no end-of-simulation hook.
+
+    @OSPProject Memory
+*/
+class TraceRecorder
+{
+    static final int Magic = 0x4F535054; // "OSPT"
+    static final int Version = 1;
+
+    private static DataOutputStream out = null;
+    private static long lastTick = 0;
+    private static long records = 0;
+
+    /** Opens the trace file if ReferenceTrace is set. Called from MMU.init(). */
+    static void init()
+    {
+        close();
+        String fileName = MemoryParams.getString("ReferenceTrace", null);
+        if (fileName == null)
+            return;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+            out.writeInt(Magic);
+            out.writeByte(Version);
+        } catch (IOException e) {
+            MemoryLog.warning("osp.Memory.TraceRecorder", "Cannot write trace {}: {}", fileName, e);
+            out = null;
+            return;
+        }
+        lastTick = 0;
+        records = 0;
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            public void run() { close(); }
+        });
+        MemoryLog.info("osp.Memory.TraceRecorder", "Recording references to {}", fileName);
+    }
+
+    static boolean isOn()
+    {
+        return out != null;
+    }
+
+    static synchronized void record(int taskID, int pageNumber, boolean write)
+    {
+        if (out == null)
+            return; // closed by the shutdown hook meanwhile
+        long now = HClock.get();
+        long delta = now - lastTick;
+        lastTick = now;
+        try {
+            writeVarint((delta << 1) ^ (delta >> 63));
+            writeVarint(taskID);
+            writeVarint(((long)pageNumber << 1) | (write ? 1 : 0));
+            records++;
+        } catch (IOException e) {
+            MemoryLog.warning("osp.Memory.TraceRecorder", "Trace stopped: {}", e);
+            close();
+        }
+    }
+
+    static synchronized void flush()
+    {
+        if (out == null)
+            return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    static synchronized void close()
+    {
+        if (out == null)
+            return;
+        try {
+            out.close();
+        } catch (IOException e) { }
+        out = null;
+    }
+
+    static String report()
+    {
+        return "Trace: " + records + " references recorded";
+    }
+
+    private static void writeVarint(long value) throws IOException
+    {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int)(value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+}
@@ -0,0 +1,153 @@
+package osp.Memory;
+
+import java.io.*;
+import java.util.HashMap;
+
+/**
+    Offline replay of a trace written by TraceRecorder:
+
+      java -classpath ... osp.Memory.TraceReplay trace [frames ...]
+
+    Prints the number of page faults and the fault rate the trace would
+    have had with each of the given numbers of frames (by default every
+    number from 1 up to the number of distinct pages), all from a single
+    pass over the trace.
+
+    This is Mattson's stack algorithm for LRU replacement with global
+    frame allocation, the defaults of PageFaultHandler: a reference
+    faults with F frames exactly when more than F - 1 distinct pages were
+    referenced since the last reference to the same page, or when it
+    is the first one. The stack distances are counted with a Fenwick
+    tree over the reference positions, so the replay is O(n log n).
+    The other replacement policies are not stack algorithms and work
+    on OSP's frame table, so they cannot be replayed this way.
+
+    @OSPProject Memory
+*/
+class TraceReplay
+{
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0) {
+            System.err.println("usage: TraceReplay trace [frames ...]");
+            System.exit(2);
+        }
+
+        // distances[d] = references with stack distance d (1 = same page
+        // as last time); cold references are counted apart
+        long[] distances = new long[16];
+        long references = 0;
+        long cold = 0;
+
+        HashMap<Long,Integer> lastUse = new HashMap<Long,Integer>();
+        int[] tree = new int[1 << 16]; // Fenwick tree, 1-based; marks the last use of each page
+        int position = 0;
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]), 1 << 16));
+        try {
+            if (in.readInt() != TraceRecorder.Magic || in.readByte() != TraceRecorder.Version) {
+                System.err.println(args[0] + " is not a reference trace");
+                System.exit(1);
+            }
+            while (true) {
+                try {
+                    readVarint(in); // tick delta, the curve does not need it
+                } catch (EOFException e) {
+                    break;
+                }
+                long task = readVarint(in);
+                long page = readVarint(in) >>> 1;
+                long key = (task << 32) | page;
+
+                position++;
+                if (position >= tree.length) {
+                    int[] bigger = new int[2 * tree.length];
+                    // a Fenwick tree cannot just be copied into a bigger one
+                    rebuild(tree, bigger, position - 1);
+                    tree = bigger;
+                }
+                references++;
+                Integer last = lastUse.put(key, position);
+                if (last == null) {
+                    cold++;
+                } else {
+                    // distinct pages used after `last', plus this one
+                    int distance = sum(tree, position - 1) - sum(tree, last) + 1;
+                    if (distance >= distances.length) {
+                        long[] bigger = new long[Math.max(2 * distances.length, distance + 1)];
+                        System.arraycopy(distances, 0, bigger, 0, distances.length);
+                        distances = bigger;
+                    }
+                    distances[distance]++;
+                    add(tree, last, -1);
+                }
+                add(tree, position, 1);
+            }
+        } finally {
+            in.close();
+        }
+
+        int[] frames;
+        if (args.length > 1) {
+            frames = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++)
+                frames[i - 1] = Integer.parseInt(args[i]);
+        } else {
+            frames = new int[lastUse.size()];
+            for (int i = 0; i < frames.length; i++)
+                frames[i] = i + 1;
+        }
+
+        // hits with F frames = references with distance <= F
+        long[] hits = new long[distances.length];
+        for (int d = 1; d < distances.length; d++)
+            hits[d] = hits[d - 1] + distances[d];
+
+        System.out.println(references + " references, " + lastUse.size() + " distinct pages, "
+                           + cold + " first references");
+        System.out.println("frames\tfaults\tfault rate");
+        for (int i = 0; i < frames.length; i++) {
+            int f = Math.max(0, frames[i]);
+            long faults = references - hits[Math.min(f, hits.length - 1)];
+            System.out.println(f + "\t" + faults + "\t"
+                               + (references == 0 ? 0 : 100.0 * faults / references) + "%");
+        }
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException
+    {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void add(int[] tree, int i, int delta)
+    {
+        for (; i < tree.length; i += i & -i)
+            tree[i] += delta;
+    }
+
+    private static int sum(int[] tree, int i)
+    {
+        int s = 0;
+        for (; i > 0; i -= i & -i)
+            s += tree[i];
+        return s;
+    }
+
+    /** Puts the marks of positions 1..n of the old tree into the empty new one. */
+    private static void rebuild(int[] tree, int[] bigger, int n)
+    {
+        for (int i = 1; i <= n; i++) {
+            int mark = sum(tree, i) - sum(tree, i - 1);
+            if (mark != 0)
+                add(bigger, i, mark);
+        }
+    }
+}
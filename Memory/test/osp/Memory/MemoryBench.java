@@ -0,0 +1,244 @@
+package osp.Memory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+import osp.Bench.*;
+import osp.IFLModules.*;
+import osp.Tasks.*;
+import osp.Threads.*;
+import osp.Utilities.*;
+
+/**
+    Micro-benchmarks for the Memory hot paths, run outside the
+    simulator with `make bench'. Every benchmark is run at 30 (the
+    params files), 1K and 64K frames:
+
+      LRU touch       LRUFrameList.touch(), done by every MMU.do_refer()
+      LRU reload      remove() + touch(), an eviction and the fault after it
+      pool move       FrameSet remove() + add(), a FramePool transition
+      refer hit       MMU.do_refer() of a resident page, half of them writes
+      PageTable new   a PageTable and do_deallocateMemory(), ns per page
+      PageTable free  a PageTable with a page in every frame, then
+                      do_deallocateMemory(), ns per frame
+      victim <name>   a page fault under each ReplacementPolicy: one
+                      reference, then PageFaultHandler.GetNewFrame() and
+                      the victim refilled as PageFault does it
+
+    The module is built against the stand-ins for OSP in test/stub,
+    whose IflMMU sets up the frame table the way the simulator does.
+    The stand-ins do no checking or tracing, so what is measured is
+    the module's own work.
+
+    @OSPProject Memory
+*/
+class MemoryBench
+{
+    private static final int[] Sizes = { 30, 1 << 10, 1 << 16 };
+    private static final int Ops = 1 << 20;
+    private static final int Faults = 1 << 12;
+    private static final int Tables = 16;
+    private static final int WriteEvery = 2; // MemoryWritePercentage is 50 in the params files
+    private static final String[] Policies = { "LRU", "FIFO", "Clock", "EnhancedClock", "Aging", "CleanFirst" };
+
+    /**
+       A page fault per reference: the reference does to its frame what
+       MMU.do_refer() does, then GetNewFrame() picks the victim, which is
+       written back if dirty and refilled with its own page.
+    */
+    private static final class FaultBench extends Bench
+    {
+        private final PageTable pageTable;
+        private final int[] refs;
+
+        FaultBench(PageTable pageTable, int[] refs)
+        {
+            super("victim " + PageFaultHandler.policy);
+            this.pageTable = pageTable;
+            this.refs = refs;
+        }
+
+        protected long run()
+        {
+            long sum = 0;
+            for (int i = 0; i < refs.length; i++) {
+                FrameTableEntry frame = MMU.getFrame(refs[i]);
+                frame.setReferenced(true);
+                if (i % WriteEvery == 0) {
+                    MMU.pool.frameDirtied(frame);
+                    frame.setDirty(true);
+                }
+                MMU.LRU.touch(frame);
+
+                FrameTableEntry victim = PageFaultHandler.GetNewFrame(pageTable);
+                MMU.pool.frameTaken(victim);
+                victim.setDirty(false);
+                victim.setReferenced(false);
+                PageFaultHandler.policy.frameFreed(victim);
+                MMU.LRU.touch(victim);
+                PageFaultHandler.policy.frameLoaded(victim);
+                MMU.pool.frameFilled(victim);
+                sum += victim.getID();
+            }
+            return sum;
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        Bench.printHeader("frames", "op");
+        for (int s = 0; s < Sizes.length; s++) {
+            final int size = Sizes[s];
+            final int[] refs = skewedRefs(size, Ops);
+            final FrameTableEntry[] frames = new FrameTableEntry[size];
+            for (int i = 0; i < size; i++)
+                frames[i] = new FrameTableEntry(i);
+
+            final LRUFrameList lru = new LRUFrameList(size);
+            for (int i = 0; i < size; i++)
+                lru.touch(frames[i]);
+            final FrameSet clean = new FrameSet(size);
+            final FrameSet dirty = new FrameSet(size);
+            for (int i = 0; i < size; i++)
+                clean.add(frames[i]);
+
+            setUp(size, "LRU");
+            final TaskCB task = new TaskCB(1);
+            final ThreadCB thread = new ThreadCB(task);
+            PageTable resident = new PageTable(task);
+            task.setPageTable(resident);
+            IflMMU.setPTBR(resident);
+            fillFrameTable(resident);
+
+            Bench[] benches = {
+                new Bench("LRU touch") {
+                    protected long run() {
+                        for (int i = 0; i < refs.length; i++)
+                            lru.touch(frames[refs[i]]);
+                        return lru.size();
+                    }
+                },
+                new Bench("LRU reload") {
+                    protected long run() {
+                        for (int i = 0; i < refs.length; i++) {
+                            lru.remove(frames[refs[i]]);
+                            lru.touch(frames[refs[i]]);
+                        }
+                        return lru.size();
+                    }
+                },
+                new Bench("pool move") {
+                    protected long run() {
+                        for (int i = 0; i < refs.length; i++) {
+                            FrameTableEntry frame = frames[refs[i]];
+                            if (clean.contains(frame)) {
+                                clean.remove(frame);
+                                dirty.add(frame);
+                            } else {
+                                dirty.remove(frame);
+                                clean.add(frame);
+                            }
+                        }
+                        return clean.size();
+                    }
+                },
+                new Bench("refer hit") {
+                    protected long run() {
+                        long sum = 0;
+                        for (int i = 0; i < refs.length; i++) {
+                            int type = i % WriteEvery == 0
+                                ? GlobalVariables.MemoryWrite : GlobalVariables.MemoryRead;
+                            sum += MMU.do_refer(refs[i] << MMU.offsetBits, type, thread).getID();
+                        }
+                        return sum;
+                    }
+                },
+            };
+            for (int b = 0; b < benches.length; b++)
+                benches[b].print(size, benches[b].measure(refs.length));
+
+            resident.do_deallocateMemory();
+            final int pages = 1 << MMU.getPageAddressBits();
+            Bench create = new Bench("PageTable new") {
+                protected long run() {
+                    long sum = 0;
+                    for (int i = 0; i < Tables; i++) {
+                        PageTable pageTable = new PageTable(task);
+                        pageTable.do_deallocateMemory();
+                        sum += pageTable.pages.length;
+                    }
+                    return sum;
+                }
+            };
+            create.print(size, create.measure(Tables * pages));
+            Bench free = new Bench("PageTable free") {
+                protected long run() {
+                    PageTable pageTable = new PageTable(task);
+                    fillFrameTable(pageTable);
+                    pageTable.do_deallocateMemory();
+                    return pageTable.pages.length;
+                }
+            };
+            free.print(size, free.measure(size));
+        }
+
+        for (int p = 0; p < Policies.length; p++) {
+            for (int s = 0; s < Sizes.length; s++) {
+                setUp(Sizes[s], Policies[p]);
+                PageTable pageTable = new PageTable(new TaskCB(1));
+                fillFrameTable(pageTable);
+                Bench bench = new FaultBench(pageTable, skewedRefs(Sizes[s], Faults));
+                bench.print(Sizes[s], bench.measure(Faults));
+            }
+        }
+    }
+
+    /**
+       Sets up a frame table of the given size under the policy, with
+       just enough pages per task to fill it.
+    */
+    static void setUp(int size, String policy) throws IOException
+    {
+        File params = File.createTempFile("MemoryBench", ".osp");
+        params.deleteOnExit();
+        Writer out = new FileWriter(params);
+        out.write("[Memory]\nReplacementPolicy " + policy + "\nLogLevel Warning\n");
+        out.close();
+        System.setProperty("osp.paramFile", params.getPath());
+
+        int pageAddressBits = 0;
+        while ((1 << pageAddressBits) < size)
+            pageAddressBits++;
+        IflMMU.setUp(size, pageAddressBits);
+    }
+
+    /** Gives every frame a valid page of the page table, the way PageFault installs one. */
+    static void fillFrameTable(PageTable pageTable)
+    {
+        for (int i = 0; i < MMU.getFrameTableSize(); i++) {
+            FrameTableEntry frame = MMU.getFrame(i);
+            PageTableEntry page = pageTable.pages[i];
+            MMU.pool.frameTaken(frame);
+            frame.setPage(page);
+            page.setFrame(frame);
+            pageTable.frameFilled(frame);
+            page.setValid(true);
+            MMU.LRU.touch(frame);
+            PageFaultHandler.policy.frameLoaded(frame);
+            MMU.pool.frameFilled(frame);
+        }
+    }
+
+    /** @return n frame numbers below size, most of them from a small hot set, as a program's references are */
+    static int[] skewedRefs(int size, int n)
+    {
+        Random random = new Random(42);
+        int hot = Math.max(1, size / 8);
+        int[] refs = new int[n];
+        for (int i = 0; i < n; i++)
+            refs[i] = random.nextInt(10) < 8 ? random.nextInt(hot) : random.nextInt(size);
+        return refs;
+    }
+}
@@ -0,0 +1,19 @@
+package osp.Devices;
+
+import osp.Threads.*;
+
+/** Bench stand-in for OSP's IORB. */
+public class IORB
+{
+    private final ThreadCB thread;
+
+    public IORB(ThreadCB thread)
+    {
+        this.thread = thread;
+    }
+
+    public ThreadCB getThread()
+    {
+        return thread;
+    }
+}
@@ -0,0 +1,6 @@
+package osp.FileSys;
+
+/** Bench stand-in for OSP's FileSys. */
+public class FileSys
+{
+}
@@ -0,0 +1,19 @@
+package osp.FileSys;
+
+import osp.Memory.*;
+import osp.Threads.*;
+import osp.Utilities.*;
+
+/** Bench stand-in for OSP's OpenFile: swap I/O completes at once. */
+public class OpenFile extends GlobalVariables
+{
+    public int read(int blockNumber, PageTableEntry page, ThreadCB thread)
+    {
+        return SUCCESS;
+    }
+
+    public int write(int blockNumber, PageTableEntry page, ThreadCB thread)
+    {
+        return SUCCESS;
+    }
+}
@@ -0,0 +1,18 @@
+package osp.Hardware;
+
+import osp.Interrupts.*;
+import osp.Memory.*;
+
+/**
+    Bench stand-in for OSP's CPU: a page fault interrupt goes straight
+    to the page fault handler, as OSP's interrupt vector sends it.
+*/
+public class CPU
+{
+    public static void interrupt(int type)
+    {
+        PageFaultHandler.handlePageFault(InterruptVector.getThread(),
+                                         InterruptVector.getReferenceType(),
+                                         InterruptVector.getPage());
+    }
+}
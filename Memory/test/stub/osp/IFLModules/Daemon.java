@@ -0,0 +1,9 @@
+package osp.IFLModules;
+
+/** Bench stand-in for OSP's Daemon: there is no simulation to run daemons in. */
+public class Daemon
+{
+    public static void create(String name, DaemonInterface daemon, int interval)
+    {
+    }
+}
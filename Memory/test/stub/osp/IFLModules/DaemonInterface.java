@@ -0,0 +1,9 @@
+package osp.IFLModules;
+
+import osp.Threads.*;
+
+/** Bench stand-in for OSP's DaemonInterface. */
+public interface DaemonInterface
+{
+    void unleash(ThreadCB thread);
+}
@@ -0,0 +1,14 @@
+package osp.IFLModules;
+
+import osp.Utilities.*;
+
+/**
+    Bench stand-in for OSP's Event. Nothing waits in the benches, so
+    there is no one to wake up.
+*/
+public class Event extends GlobalVariables
+{
+    public void notifyThreads()
+    {
+    }
+}
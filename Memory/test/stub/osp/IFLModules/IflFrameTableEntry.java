@@ -0,0 +1,95 @@
+package osp.IFLModules;
+
+import osp.Memory.*;
+import osp.Tasks.*;
+import osp.Utilities.*;
+
+/**
+    Bench stand-in for OSP's IflFrameTableEntry. The setters only set:
+    OSP's checks and traces are not part of what is measured.
+*/
+public class IflFrameTableEntry extends GlobalVariables
+{
+    private final int id;
+    private PageTableEntry page = null;
+    private TaskCB reserved = null;
+    private boolean dirty = false;
+    private boolean referenced = false;
+    private int lockCount = 0;
+
+    public IflFrameTableEntry(int id)
+    {
+        this.id = id;
+    }
+
+    public int getID()
+    {
+        return id;
+    }
+
+    public PageTableEntry getPage()
+    {
+        return page;
+    }
+
+    public void setPage(PageTableEntry page)
+    {
+        this.page = page;
+    }
+
+    public boolean isReserved()
+    {
+        return reserved != null;
+    }
+
+    public TaskCB getReserved()
+    {
+        return reserved;
+    }
+
+    public void setReserved(TaskCB task)
+    {
+        reserved = task;
+    }
+
+    public void setUnreserved(TaskCB task)
+    {
+        if (reserved == task)
+            reserved = null;
+    }
+
+    public boolean isDirty()
+    {
+        return dirty;
+    }
+
+    public void setDirty(boolean dirty)
+    {
+        this.dirty = dirty;
+    }
+
+    public boolean isReferenced()
+    {
+        return referenced;
+    }
+
+    public void setReferenced(boolean referenced)
+    {
+        this.referenced = referenced;
+    }
+
+    public int getLockCount()
+    {
+        return lockCount;
+    }
+
+    public void incrementLockCount()
+    {
+        lockCount++;
+    }
+
+    public void decrementLockCount()
+    {
+        lockCount--;
+    }
+}
@@ -0,0 +1,63 @@
+package osp.IFLModules;
+
+import osp.Memory.*;
+import osp.Utilities.*;
+
+/**
+    Bench stand-in for OSP's IflMMU. setUp() does what OSP does when
+    the simulation starts: it sizes the frame table and calls
+    MMU.init(), which fills it.
+*/
+public class IflMMU extends GlobalVariables
+{
+    private static final int VirtualAddressBits = 16; // as in OSP
+
+    private static FrameTableEntry[] frames = new FrameTableEntry[0];
+    private static int pageAddressBits = 0;
+    private static PageTable ptbr = null;
+
+    /** Sets up a frame table of the given size, with pages of 1 << pageAddressBits per task. */
+    public static void setUp(int frameCount, int pageAddressBits)
+    {
+        frames = new FrameTableEntry[frameCount];
+        IflMMU.pageAddressBits = pageAddressBits;
+        ptbr = null;
+        MMU.init();
+    }
+
+    public static FrameTableEntry getFrame(int id)
+    {
+        return frames[id];
+    }
+
+    public static void setFrame(int id, FrameTableEntry frame)
+    {
+        frames[id] = frame;
+    }
+
+    public static int getFrameTableSize()
+    {
+        return frames.length;
+    }
+
+    public static int getVirtualAddressBits()
+    {
+        return VirtualAddressBits;
+    }
+
+    public static int getPageAddressBits()
+    {
+        return pageAddressBits;
+    }
+
+    public static PageTable getPTBR()
+    {
+        return ptbr;
+    }
+
+    /** Makes the page table the current one, as OSP does on a context switch. */
+    public static void setPTBR(PageTable pageTable)
+    {
+        ptbr = pageTable;
+    }
+}
@@ -0,0 +1,14 @@
+package osp.IFLModules;
+
+import osp.Memory.*;
+import osp.Threads.*;
+import osp.Utilities.*;
+
+/** Bench stand-in for OSP's IflPageFaultHandler. */
+public class IflPageFaultHandler extends GlobalVariables
+{
+    public static int handlePageFault(ThreadCB thread, int referenceType, PageTableEntry page)
+    {
+        return PageFaultHandler.do_handlePageFault(thread, referenceType, page);
+    }
+}
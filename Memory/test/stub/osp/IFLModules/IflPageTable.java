@@ -0,0 +1,22 @@
+package osp.IFLModules;
+
+import osp.Memory.*;
+import osp.Tasks.*;
+import osp.Utilities.*;
+
+/** Bench stand-in for OSP's IflPageTable. */
+public class IflPageTable extends GlobalVariables
+{
+    public PageTableEntry[] pages;
+    private final TaskCB task;
+
+    public IflPageTable(TaskCB task)
+    {
+        this.task = task;
+    }
+
+    public TaskCB getTask()
+    {
+        return task;
+    }
+}
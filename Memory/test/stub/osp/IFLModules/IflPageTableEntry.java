@@ -0,0 +1,64 @@
+package osp.IFLModules;
+
+import osp.Memory.*;
+import osp.Tasks.*;
+import osp.Threads.*;
+
+/**
+    Bench stand-in for OSP's IflPageTableEntry. The setters only set:
+    OSP's checks and traces are not part of what is measured.
+*/
+public class IflPageTableEntry extends Event
+{
+    private final IflPageTable pageTable;
+    private final int id;
+    private FrameTableEntry frame = null;
+    private boolean valid = false;
+    private ThreadCB validatingThread = null;
+
+    public IflPageTableEntry(IflPageTable pageTable, int id)
+    {
+        this.pageTable = pageTable;
+        this.id = id;
+    }
+
+    public int getID()
+    {
+        return id;
+    }
+
+    public TaskCB getTask()
+    {
+        return pageTable.getTask();
+    }
+
+    public FrameTableEntry getFrame()
+    {
+        return frame;
+    }
+
+    public void setFrame(FrameTableEntry frame)
+    {
+        this.frame = frame;
+    }
+
+    public boolean isValid()
+    {
+        return valid;
+    }
+
+    public void setValid(boolean valid)
+    {
+        this.valid = valid;
+    }
+
+    public ThreadCB getValidatingThread()
+    {
+        return validatingThread;
+    }
+
+    public void setValidatingThread(ThreadCB thread)
+    {
+        validatingThread = thread;
+    }
+}
@@ -0,0 +1,17 @@
+package osp.IFLModules;
+
+/** Bench stand-in for OSP's SystemEvent. */
+public class SystemEvent extends Event
+{
+    private final String name;
+
+    public SystemEvent(String name)
+    {
+        this.name = name;
+    }
+
+    public String toString()
+    {
+        return "SystemEvent(" + name + ")";
+    }
+}
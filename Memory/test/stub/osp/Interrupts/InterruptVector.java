@@ -0,0 +1,42 @@
+package osp.Interrupts;
+
+import osp.Memory.*;
+import osp.Threads.*;
+
+/** Bench stand-in for OSP's InterruptVector. */
+public class InterruptVector
+{
+    private static ThreadCB thread;
+    private static PageTableEntry page;
+    private static int referenceType;
+
+    public static void setThread(ThreadCB t)
+    {
+        thread = t;
+    }
+
+    public static ThreadCB getThread()
+    {
+        return thread;
+    }
+
+    public static void setPage(PageTableEntry p)
+    {
+        page = p;
+    }
+
+    public static PageTableEntry getPage()
+    {
+        return page;
+    }
+
+    public static void setReferenceType(int type)
+    {
+        referenceType = type;
+    }
+
+    public static int getReferenceType()
+    {
+        return referenceType;
+    }
+}
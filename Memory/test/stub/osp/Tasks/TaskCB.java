@@ -0,0 +1,48 @@
+package osp.Tasks;
+
+import osp.FileSys.*;
+import osp.Memory.*;
+import osp.Utilities.*;
+
+/** Bench stand-in for OSP's TaskCB: a live task with a page table and a swap file. */
+public class TaskCB extends GlobalVariables
+{
+    private final int id;
+    private final OpenFile swapFile = new OpenFile();
+    private PageTable pageTable = null;
+
+    public TaskCB(int id)
+    {
+        this.id = id;
+    }
+
+    public int getID()
+    {
+        return id;
+    }
+
+    public int getStatus()
+    {
+        return TaskLive;
+    }
+
+    public PageTable getPageTable()
+    {
+        return pageTable;
+    }
+
+    public void setPageTable(PageTable pageTable)
+    {
+        this.pageTable = pageTable;
+    }
+
+    public OpenFile getSwapFile()
+    {
+        return swapFile;
+    }
+
+    public String toString()
+    {
+        return "Task(" + id + ")";
+    }
+}
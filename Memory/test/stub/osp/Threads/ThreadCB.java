@@ -0,0 +1,37 @@
+package osp.Threads;
+
+import osp.IFLModules.*;
+import osp.Tasks.*;
+import osp.Utilities.*;
+
+/**
+    Bench stand-in for OSP's ThreadCB. A thread always runs: suspend()
+    returns at once, as if the event had already happened.
+*/
+public class ThreadCB extends GlobalVariables
+{
+    private final TaskCB task;
+
+    public ThreadCB(TaskCB task)
+    {
+        this.task = task;
+    }
+
+    public TaskCB getTask()
+    {
+        return task;
+    }
+
+    public int getStatus()
+    {
+        return ThreadRunning;
+    }
+
+    public void suspend(Event event)
+    {
+    }
+
+    public static void dispatch()
+    {
+    }
+}
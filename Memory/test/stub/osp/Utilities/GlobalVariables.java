@@ -0,0 +1,19 @@
+package osp.Utilities;
+
+/**
+    Bench stand-in for OSP's GlobalVariables: the constants the Memory
+    module uses, with OSP's values.
+*/
+public class GlobalVariables
+{
+    public static final int SUCCESS = 100;
+    public static final int FAILURE = 101;
+    public static final int NotEnoughMemory = 102;
+    public static final int TaskLive = 0;
+    public static final int ThreadRunning = 21;
+    public static final int ThreadKill = 22;
+    public static final int MemoryRead = 21;
+    public static final int MemoryWrite = 22;
+    public static final int MemoryLock = 23;
+    public static final int PageFault = 0;
+}
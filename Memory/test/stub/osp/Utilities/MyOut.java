@@ -0,0 +1,17 @@
+package osp.Utilities;
+
+/**
+    Bench stand-in for OSP's MyOut: messages are dropped, warnings go to
+    stderr.
+*/
+public class MyOut
+{
+    public static void print(Object source, String message)
+    {
+    }
+
+    public static void warning(Object source, String message)
+    {
+        System.err.println("Warning: " + message);
+    }
+}
@@ -0,0 +1,81 @@
+package osp.Tasks;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+    Unordered set of the threads, ports or open files of a task.
+
+    The members sit in a plain array and every member remembers its
+    slot, so add, remove and size are O(1): a removed member's slot is
+    filled with the last member. Unlike Vector there is no locking;
+    OSP calls into a task from one simulation thread at a time.
+
+    @OSPProject Tasks
+*/
+class Registry<T>
+{
+    private Object[] members = new Object[4];
+    private final IdentityHashMap<T,Integer> slot = new IdentityHashMap<T,Integer>();
+    private int size = 0;
+
+    /** @return false if the object is already a member */
+    boolean add(T member)
+    {
+        if (slot.containsKey(member))
+            return false;
+        if (size == members.length) {
+            Object[] bigger = new Object[2 * size];
+            System.arraycopy(members, 0, bigger, 0, size);
+            members = bigger;
+        }
+        members[size] = member;
+        slot.put(member, size);
+        size++;
+        return true;
+    }
+
+    /** @return false if the object was not a member */
+    @SuppressWarnings("unchecked")
+    boolean remove(T member)
+    {
+        Integer hole = slot.remove(member);
+        if (hole == null)
+            return false;
+        size--;
+        if (hole != size) {
+            T last = (T)members[size];
+            members[hole] = last;
+            slot.put(last, hole);
+        }
+        members[size] = null;
+        return true;
+    }
+
+    boolean contains(T member)
+    {
+        return slot.containsKey(member);
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+       @return a copy of the members, for do_kill(): killing a thread,
+       destroying a port or closing a file calls back into the task and
+       removes the member, which would reshuffle the array under a
+       caller walking it. The copy is walked instead, so tearing down n
+       members costs O(n). The registry itself is left as it is.
+    */
+    @SuppressWarnings("unchecked")
+    List<T> snapshot()
+    {
+        List<T> copy = new ArrayList<T>(size);
+        for (int i = 0; i < size; i++)
+            copy.add((T)members[i]);
+        return copy;
+    }
+}
@@ -1,6 +1,5 @@
 package osp.Tasks;
 
-import java.util.Vector;
 import osp.IFLModules.*;
 import osp.Threads.*;
 import osp.Ports.*;
@@ -8,7 +7,6 @@ import osp.Memory.*;
 import osp.FileSys.*;
 import osp.Utilities.*;
 import osp.Hardware.*;
-import java.lang.Math;
 
 /**
     The student module dealing with the creation and killing of
@@ -17,16 +15,16 @@ import java.lang.Math;
     threads.  The primary methods that the student will implement
     are do_create(TaskCB) and do_kill(TaskCB).  The student can choose
     how to keep track of which threads are part of a task.  In this
-    implementation, an array is used.
+    implementation, a Registry (an indexed array) is used.
 
     @OSPProject Tasks
 */
 public class TaskCB extends IflTaskCB
 {
 	
-	Vector<PortCB>  ports; // creates a new vector for ports
-    Vector<OpenFile> files;
-    Vector<ThreadCB>  threads;
+	Registry<PortCB>  ports; // the ports owned by the task
+    Registry<OpenFile> files;
+    Registry<ThreadCB>  threads;
     public TaskCB()
     {
     	super();  
@@ -43,9 +41,7 @@ public class TaskCB extends IflTaskCB
     */
     public static void init()
     {
-    	 // creates a new vector for openfiles
-        // your code goes here
-
+        TasksLog.init();
 
     }
 
@@ -69,9 +65,9 @@ public class TaskCB extends IflTaskCB
     	PageTable pt = new PageTable(newTask);
     	newTask.setPageTable(pt);
     	
-    	newTask.threads = new Vector<ThreadCB>();
-    	newTask.ports = new Vector<PortCB>();
-    	newTask.files = new Vector<OpenFile>();
+    	newTask.threads = new Registry<ThreadCB>();
+    	newTask.ports = new Registry<PortCB>();
+    	newTask.files = new Registry<OpenFile>();
     	
 
     	
@@ -80,13 +76,12 @@ public class TaskCB extends IflTaskCB
     	newTask.setPriority(1);//sets the task priority to something
     	
     	newTask.setStatus(TaskLive); // sets the status to TaskLive
-    	double fileSize = Math.pow(2,MMU.getVirtualAddressBits());
-    	int file_size = (int)fileSize;
+    	// OSP checks that the swap file covers the whole virtual address space
+    	int file_size = 1 << MMU.getVirtualAddressBits();
     	FileSys.create(SwapDeviceMountPoint+ newTask.getID(),file_size);
    
     	
     	OpenFile newFile = OpenFile.open(SwapDeviceMountPoint+ newTask.getID(),newTask );
-    	System.out.println(newFile);
   
     	
     	if(newFile == null) {
@@ -98,7 +93,7 @@ public class TaskCB extends IflTaskCB
     	}
     	ThreadCB.create(newTask);
     	
-    	MyOut.print("osp.Tasks.TaskCB", "do_create(): " + newTask + " created");
+    	TasksLog.info("osp.Tasks.TaskCB", "do_create(): {} created", newTask);
     	
     	return newTask;
 //    	
@@ -116,14 +111,15 @@ public class TaskCB extends IflTaskCB
     */
     public void do_kill()
     {
-    	MyOut.print(this, "Entering do_kill() for task " + this);
+    	TasksLog.debug(this, "Entering do_kill() for task {}", this);
     	
-    	while(threads.size() > 0){
-            (threads.get(0)).kill();
+    	// each kill()/destroy() removes its member from the registry
+    	for(ThreadCB thread : threads.snapshot()){
+            thread.kill();
     	}
 //    	
-    	while(ports.size() > 0){
-            (ports.get(0)).destroy();
+    	for(PortCB port : ports.snapshot()){
+            port.destroy();
     	}
     	
          
@@ -133,8 +129,8 @@ public class TaskCB extends IflTaskCB
     	
     
     	this.getSwapFile().close();
-    	for(int i= 0; i<files.size(); i++) {    
-    		files.get(i).close();
+    	for(OpenFile file : files.snapshot()) {    
+    		file.close();
     	      }
     	
     	
@@ -183,8 +179,7 @@ public class TaskCB extends IflTaskCB
     */
     public int do_removeThread(ThreadCB thread)
     {
-        if(threads.contains(thread)) {
-        	threads.remove(thread);
+        if(threads.remove(thread)) {
         	return ThreadCB.SUCCESS;
         }
         else {
@@ -228,8 +223,7 @@ public class TaskCB extends IflTaskCB
     */ 
     public int do_removePort(PortCB oldPort)
     {
-    	if(ports.contains(oldPort)) {
-        	ports.remove(oldPort);
+    	if(ports.remove(oldPort)) {
         	return PortCB.SUCCESS;
         }
         else {
@@ -0,0 +1,127 @@
+package osp.Tasks;
+
+import java.io.*;
+import osp.Utilities.*;
+
+/**
+    Level-filtered logging for the Tasks module, in front of MyOut.
+
+    The level is LogLevel in the [Tasks] section of the parameter file,
+    one of Off, Warning, Info, Debug; Info by default, Warning if
+    ModuleOutputFlag in [General] is 0, when MyOut would drop the
+    messages anyway. A message above the level is dropped before its
+    text is built: the text is a format with {} for each argument and
+    is only put together when the message is written.
+
+    The module logs a few lines per task, so unlike the Memory log the
+    messages are written at once rather than buffered.
+
+    The file is the one passed to OSP with -paramFile, or
+    Misc/params.osp when none is given, the same default OSP uses.
+    It can also be forced with -Dosp.paramFile=...
+
+    @OSPProject Tasks
+*/
+class TasksLog
+{
+    static final int Off = 0;
+    static final int Warning = 1;
+    static final int Info = 2;
+    static final int Debug = 3;
+
+    private static final String[] LevelNames = { "Off", "Warning", "Info", "Debug" };
+    private static final String DefaultParamFile = "Misc/params.osp";
+
+    private static int level = Info;
+
+    /** Reads LogLevel and ModuleOutputFlag. Called from TaskCB.init(). */
+    static void init()
+    {
+        String name = null;
+        boolean moduleOutput = true;
+        BufferedReader in = null;
+        try {
+            in = new BufferedReader(new FileReader(getParamFileName()));
+            String section = "";
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#"))
+                    continue;
+                if (line.startsWith("[")) {
+                    section = line;
+                    continue;
+                }
+                String[] keyValue = line.split("\\s+", 2);
+                if (keyValue.length < 2)
+                    continue;
+                if (section.equalsIgnoreCase("[Tasks]") && keyValue[0].equals("LogLevel"))
+                    name = keyValue[1].trim();
+                else if (section.equalsIgnoreCase("[General]") && keyValue[0].equals("ModuleOutputFlag"))
+                    moduleOutput = !keyValue[1].trim().equals("0");
+            }
+        } catch (IOException e) {
+            // no file: the defaults
+        } finally {
+            if (in != null) {
+                try { in.close(); } catch (IOException e) { }
+            }
+        }
+
+        level = moduleOutput ? Info : Warning;
+        if (name != null) {
+            int i = LevelNames.length - 1;
+            while (i >= 0 && !LevelNames[i].equalsIgnoreCase(name))
+                i--;
+            if (i >= 0)
+                level = i;
+            else
+                MyOut.warning("osp.Tasks.TasksLog", "Unknown LogLevel `" + name + "'");
+        }
+    }
+
+    static void info(Object module, String format, Object... args)
+    {
+        if (Info <= level)
+            MyOut.print(module, format(format, args));
+    }
+
+    static void debug(Object module, String format, Object... args)
+    {
+        if (Debug <= level)
+            MyOut.print(module, format(format, args));
+    }
+
+    /** @return the format with each {} replaced by the next argument */
+    static String format(String format, Object[] args)
+    {
+        if (args == null || args.length == 0)
+            return format;
+        StringBuilder s = new StringBuilder(format.length() + 16 * args.length);
+        int from = 0;
+        for (int i = 0; i < args.length; i++) {
+            int at = format.indexOf("{}", from);
+            if (at < 0)
+                break;
+            s.append(format, from, at).append(args[i]);
+            from = at + 2;
+        }
+        return s.append(format, from, format.length()).toString();
+    }
+
+    private static String getParamFileName()
+    {
+        String fileName = System.getProperty("osp.paramFile");
+        if (fileName != null)
+            return fileName;
+
+        // OSP keeps -paramFile to itself, so look at the command line
+        String command = System.getProperty("sun.java.command", "");
+        String[] args = command.split("\\s+");
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("-paramFile"))
+                return args[i + 1];
+        }
+        return DefaultParamFile;
+    }
+}
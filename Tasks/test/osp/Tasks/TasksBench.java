@@ -0,0 +1,152 @@
+package osp.Tasks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+import java.util.Vector;
+import osp.Bench.*;
+import osp.Threads.*;
+
+/**
+    Micro-benchmarks for TaskCB and the Registry behind its threads,
+    ports and files, run outside the simulator with `make bench'. Each
+    one is run with 10, 1K and 64K members and prints the median ns
+    per member:
+
+      create/kill        do_create() and do_kill() of that many tasks
+      add/remove thread  do_addThread() of every thread, then
+                         do_removeThread() in random order
+      kill threads       do_create() and do_kill() of a task with that
+                         many threads, added by do_addThread()
+      Registry/Vector    the add/remove and kill runs on the bare
+      add/remove, kill   Registry, and on the Vector it replaced
+
+    TaskCB is built against the stand-ins for OSP in test/stub, which
+    create, kill and close by calling back into TaskCB the way OSP's
+    modules do, and do no checking or tracing of their own.
+
+    @OSPProject Tasks
+*/
+class TasksBench
+{
+    private static final int[] Sizes = { 10, 1 << 10, 1 << 16 };
+
+    public static void main(String[] args) throws IOException
+    {
+        File params = File.createTempFile("TasksBench", ".osp");
+        params.deleteOnExit();
+        Writer out = new FileWriter(params);
+        out.write("[Tasks]\nLogLevel Warning\n");
+        out.close();
+        System.setProperty("osp.paramFile", params.getPath());
+        TaskCB.init();
+
+        Bench.printHeader("members", "member");
+        for (int s = 0; s < Sizes.length; s++) {
+            final Object[] members = new Object[Sizes[s]];
+            for (int i = 0; i < members.length; i++)
+                members[i] = new Object();
+            final int[] order = shuffled(members.length);
+
+            final TaskCB task = TaskCB.do_create();
+            final ThreadCB[] threads = new ThreadCB[members.length];
+            for (int i = 0; i < threads.length; i++)
+                threads[i] = new ThreadCB(task);
+
+            Bench[] benches = {
+                new Bench("create/kill") {
+                    protected long run() {
+                        TaskCB[] tasks = new TaskCB[members.length];
+                        for (int i = 0; i < tasks.length; i++)
+                            tasks[i] = TaskCB.do_create();
+                        for (int i = 0; i < tasks.length; i++)
+                            tasks[i].do_kill();
+                        return tasks[tasks.length - 1].getID();
+                    }
+                },
+                new Bench("add/remove thread") {
+                    protected long run() {
+                        for (int i = 0; i < threads.length; i++)
+                            task.do_addThread(threads[i]);
+                        for (int i = 0; i < order.length; i++)
+                            task.do_removeThread(threads[order[i]]);
+                        return task.do_getThreadCount();
+                    }
+                },
+                new Bench("kill threads") {
+                    protected long run() {
+                        TaskCB victim = TaskCB.do_create();
+                        for (int i = 1; i < members.length; i++)
+                            ThreadCB.create(victim);
+                        victim.do_kill();
+                        return victim.do_getThreadCount();
+                    }
+                },
+                new Bench("Registry add/remove") {
+                    protected long run() {
+                        Registry<Object> registry = new Registry<Object>();
+                        for (int i = 0; i < members.length; i++)
+                            registry.add(members[i]);
+                        for (int i = 0; i < order.length; i++)
+                            registry.remove(members[order[i]]);
+                        return registry.size();
+                    }
+                },
+                new Bench("Vector add/remove") {
+                    protected long run() {
+                        Vector<Object> vector = new Vector<Object>();
+                        for (int i = 0; i < members.length; i++)
+                            vector.add(members[i]);
+                        for (int i = 0; i < order.length; i++)
+                            if (vector.contains(members[order[i]]))
+                                vector.remove(members[order[i]]);
+                        return vector.size();
+                    }
+                },
+                new Bench("Registry kill") {
+                    protected long run() {
+                        Registry<Object> registry = new Registry<Object>();
+                        for (int i = 0; i < members.length; i++)
+                            registry.add(members[i]);
+                        for (Object member : registry.snapshot())
+                            registry.remove(member);
+                        return registry.size();
+                    }
+                },
+                new Bench("Vector kill") {
+                    protected long run() {
+                        Vector<Object> vector = new Vector<Object>();
+                        for (int i = 0; i < members.length; i++)
+                            vector.add(members[i]);
+                        while (vector.size() > 0)
+                            vector.remove(vector.get(0));
+                        return vector.size();
+                    }
+                },
+            };
+            // the quadratic Vector runs are slow at 64K, fewer rounds do
+            boolean large = members.length > 1 << 12;
+            for (int b = 0; b < benches.length; b++)
+                benches[b].print(members.length,
+                                 large ? benches[b].measure(members.length, 1, 3)
+                                       : benches[b].measure(members.length));
+        }
+    }
+
+    static int[] shuffled(int n)
+    {
+        Random random = new Random(42);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,16 @@
+package osp.FileSys;
+
+import osp.Utilities.*;
+
+/** Bench stand-in for OSP's FileSys: there are no files behind the names. */
+public class FileSys extends GlobalVariables
+{
+    public static int create(String name, int size)
+    {
+        return SUCCESS;
+    }
+
+    public static void delete(String name)
+    {
+    }
+}
@@ -0,0 +1,34 @@
+package osp.FileSys;
+
+import osp.Tasks.*;
+import osp.Utilities.*;
+
+/**
+    Bench stand-in for OSP's OpenFile: opening a file always works, and
+    close() takes the file out of its task, as OSP's FileSys does.
+*/
+public class OpenFile extends GlobalVariables
+{
+    private final TaskCB task;
+
+    private OpenFile(TaskCB task)
+    {
+        this.task = task;
+    }
+
+    public static OpenFile open(String name, TaskCB task)
+    {
+        return new OpenFile(task);
+    }
+
+    public int close()
+    {
+        task.do_removeFile(this);
+        return SUCCESS;
+    }
+
+    public TaskCB getTask()
+    {
+        return task;
+    }
+}
@@ -0,0 +1,10 @@
+package osp.Hardware;
+
+/** Bench stand-in for OSP's HClock: simulated time does not move. */
+public class HClock
+{
+    public static long get()
+    {
+        return 0;
+    }
+}
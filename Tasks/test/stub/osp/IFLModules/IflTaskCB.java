@@ -0,0 +1,68 @@
+package osp.IFLModules;
+
+import osp.FileSys.*;
+import osp.Memory.*;
+import osp.Utilities.*;
+
+/** Bench stand-in for OSP's IflTaskCB: the task's attributes, without OSP's checks. */
+public class IflTaskCB extends GlobalVariables
+{
+    private static int nextID = 1;
+
+    private final int id = nextID++;
+    private int status;
+    private int priority;
+    private double creationTime;
+    private PageTable pageTable;
+    private OpenFile swapFile;
+
+    public int getID()
+    {
+        return id;
+    }
+
+    public int getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(int status)
+    {
+        this.status = status;
+    }
+
+    public void setPriority(int priority)
+    {
+        this.priority = priority;
+    }
+
+    public void setCreationTime(double time)
+    {
+        creationTime = time;
+    }
+
+    public PageTable getPageTable()
+    {
+        return pageTable;
+    }
+
+    public void setPageTable(PageTable pageTable)
+    {
+        this.pageTable = pageTable;
+    }
+
+    public OpenFile getSwapFile()
+    {
+        return swapFile;
+    }
+
+    public void setSwapFile(OpenFile file)
+    {
+        swapFile = file;
+    }
+
+    public String toString()
+    {
+        return "Task(" + id + ")";
+    }
+}
@@ -0,0 +1,10 @@
+package osp.Memory;
+
+/** Bench stand-in for OSP's MMU. */
+public class MMU
+{
+    public static int getVirtualAddressBits()
+    {
+        return 16; // as in OSP
+    }
+}
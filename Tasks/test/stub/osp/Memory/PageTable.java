@@ -0,0 +1,23 @@
+package osp.Memory;
+
+import osp.Tasks.*;
+
+/** Bench stand-in for OSP's PageTable: a task's memory is nothing to free. */
+public class PageTable
+{
+    private final TaskCB task;
+
+    public PageTable(TaskCB task)
+    {
+        this.task = task;
+    }
+
+    public TaskCB getTask()
+    {
+        return task;
+    }
+
+    public void deallocateMemory()
+    {
+    }
+}
@@ -0,0 +1,22 @@
+package osp.Ports;
+
+import osp.Tasks.*;
+import osp.Utilities.*;
+
+/** Bench stand-in for OSP's PortCB: destroy() takes the port out of its task. */
+public class PortCB extends GlobalVariables
+{
+    public static int MaxPortsPerTask = 1 << 20;
+
+    private final TaskCB task;
+
+    public PortCB(TaskCB task)
+    {
+        this.task = task;
+    }
+
+    public void destroy()
+    {
+        task.do_removePort(this);
+    }
+}
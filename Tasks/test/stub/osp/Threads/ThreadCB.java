@@ -0,0 +1,41 @@
+package osp.Threads;
+
+import osp.Tasks.*;
+import osp.Utilities.*;
+
+/**
+    Bench stand-in for OSP's ThreadCB: create() and kill() add the
+    thread to its task and take it out again, as OSP's Threads module
+    does.
+*/
+public class ThreadCB extends GlobalVariables
+{
+    public static int MaxThreadsPerTask = 1 << 20;
+
+    private final TaskCB task;
+
+    public ThreadCB(TaskCB task)
+    {
+        this.task = task;
+    }
+
+    public static ThreadCB create(TaskCB task)
+    {
+        ThreadCB thread = new ThreadCB(task);
+        return task.do_addThread(thread) == SUCCESS ? thread : null;
+    }
+
+    public void kill()
+    {
+        task.do_removeThread(this);
+    }
+
+    public TaskCB getTask()
+    {
+        return task;
+    }
+
+    public static void dispatch()
+    {
+    }
+}
@@ -0,0 +1,14 @@
+package osp.Utilities;
+
+/**
+    Bench stand-in for OSP's GlobalVariables: the constants the Tasks
+    module uses, with OSP's values.
+*/
+public class GlobalVariables
+{
+    public static final int SUCCESS = 100;
+    public static final int FAILURE = 101;
+    public static final int TaskLive = 0;
+    public static final int TaskTerm = 1;
+    public static final String SwapDeviceMountPoint = "/vm/";
+}